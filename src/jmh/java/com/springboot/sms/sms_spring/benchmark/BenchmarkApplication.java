@@ -0,0 +1,57 @@
+package com.springboot.sms.sms_spring.benchmark;
+
+import com.springboot.sms.sms_spring.SmsSpringApplication;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.repository.StudentRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the real service layer against an embedded H2 database and {@link InMemoryStudentCache}.
+ */
+@Configuration
+public class BenchmarkApplication {
+
+    private static final String[] BRANCHES={"CS", "EE", "ME", "CE", "IT"};
+
+    @Bean
+    @Primary
+    public InMemoryStudentCache inMemoryStudentCache(){
+        return new InMemoryStudentCache();
+    }
+
+    public static ConfigurableApplicationContext start(boolean nearCache){
+        return new SpringApplicationBuilder(SmsSpringApplication.class, BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.sql.init.mode=never",
+                        "sms.near-cache.enabled="+nearCache,
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    public static List<Student> students(int count){
+        List<Student> students=new ArrayList<>(count);
+        for(int i=0;i<count;i++){
+            students.add(new Student(0, "Student "+i, (i*37)%10000/100f, BRANCHES[i%BRANCHES.length]));
+        }
+        return students;
+    }
+
+    public static int[] load(ConfigurableApplicationContext context, int count){
+        List<Student> saved=context.getBean(StudentRepository.class).saveAll(students(count));
+        return saved.stream().mapToInt(Student::getRollNo).toArray();
+    }
+}
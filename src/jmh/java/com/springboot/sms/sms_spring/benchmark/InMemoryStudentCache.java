@@ -0,0 +1,110 @@
+package com.springboot.sms.sms_spring.benchmark;
+
+import com.springboot.sms.sms_spring.cache.StudentCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * In-process stand-in for Redis. TTLs are ignored; with {@code enabled=false} every read misses and every write
+ * is dropped, which is how the cache-miss benchmarks keep hitting the database. Reads can be given a simulated
+ * round trip, limited to as many concurrent callers as the Redis pool has connections.
+ */
+public class InMemoryStudentCache extends StudentCache {
+
+    private final Map<String, byte[]> values=new ConcurrentHashMap<>();
+    private final Map<String, Map<String, byte[]>> hashes=new ConcurrentHashMap<>();
+    private volatile boolean enabled=true;
+    private volatile Duration latency=Duration.ZERO;
+    private volatile Semaphore connections;
+
+    public void setEnabled(boolean enabled){
+        this.enabled=enabled;
+        values.clear();
+        hashes.clear();
+    }
+
+    public void setLatency(Duration latency, int connections){
+        this.latency=latency;
+        this.connections=new Semaphore(connections);
+    }
+
+    @Override
+    public byte[] get(String key){
+        roundTrip();
+        return enabled ? values.get(key) : null;
+    }
+
+    @Override
+    public CachedValue getWithTtl(String key){
+        byte[] value=get(key);
+        return value==null ? null : new CachedValue(value, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<byte[]> mget(List<String> keys){
+        roundTrip();
+        List<byte[]> result=new ArrayList<>(keys.size());
+        for(String key:keys) result.add(enabled ? values.get(key) : null);
+        return result;
+    }
+
+    @Override
+    public void setex(String key, long ttlSeconds, byte[] value){
+        if(enabled) values.put(key, value);
+    }
+
+    @Override
+    public void setexAll(Map<String, byte[]> entries, long ttlSeconds){
+        if(enabled) values.putAll(entries);
+    }
+
+    @Override
+    public void writeThrough(Map<String, byte[]> entries, long ttlSeconds, String... staleKeys){
+        del(staleKeys);
+        setexAll(entries, ttlSeconds);
+    }
+
+    @Override
+    public byte[] hget(String key, String field){
+        roundTrip();
+        Map<String, byte[]> hash=hashes.get(key);
+        return enabled && hash!=null ? hash.get(field) : null;
+    }
+
+    @Override
+    public void hsetex(String key, String field, long ttlSeconds, byte[] value){
+        if(enabled) hashes.computeIfAbsent(key, k->new ConcurrentHashMap<>()).put(field, value);
+    }
+
+    @Override
+    public void publish(String channel, String message){
+    }
+
+    @Override
+    public void del(String... keys){
+        for(String key:keys){
+            values.remove(key);
+            hashes.remove(key);
+        }
+    }
+
+    private void roundTrip(){
+        Duration delay=latency;
+        if(delay.isZero()) return;
+        try{
+            connections.acquire();
+            try{
+                Thread.sleep(delay);
+            }finally {
+                connections.release();
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
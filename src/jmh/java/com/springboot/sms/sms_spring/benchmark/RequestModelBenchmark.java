@@ -0,0 +1,72 @@
+package com.springboot.sms.sms_spring.benchmark;
+
+import com.springboot.sms.sms_spring.service.StudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput of thread-per-request on a Tomcat-sized platform pool versus one virtual thread per request.
+ * Each invocation serves {@link #REQUESTS} concurrent {@code getStudent} calls that wait on a simulated Redis
+ * round trip, with at most {@code redisConnections} of them on the wire at once, like the Jedis pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestModelBenchmark {
+
+    private static final int REQUESTS=2000;
+    //server.tomcat.threads.max default
+    private static final int TOMCAT_THREADS=200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"32", "1024"})
+    public int redisConnections;
+
+    @Param({"1"})
+    public int redisLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private ExecutorService executor;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        context=BenchmarkApplication.start(false);
+        ids=BenchmarkApplication.load(context, 1000);
+        studentService=context.getBean(StudentService.class);
+        for(int id:ids) studentService.getStudent(id, null);
+        context.getBean(InMemoryStudentCache.class).setLatency(Duration.ofMillis(redisLatencyMillis), redisConnections);
+        executor="virtual".equals(threads) ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(TOMCAT_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void getStudent() throws Exception {
+        List<Future<?>> responses=new ArrayList<>(REQUESTS);
+        for(int i=0;i<REQUESTS;i++){
+            int id=ids[i%ids.length];
+            responses.add(executor.submit(()->studentService.getStudent(id, null)));
+        }
+        for(Future<?> response:responses) response.get();
+    }
+}
@@ -0,0 +1,85 @@
+package com.springboot.sms.sms_spring.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.reflect.TypeToken;
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.JsonCacheCodec;
+import com.springboot.sms.sms_spring.entity.Student;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache encodings of {@code Student} and {@code List<Student>} (json is the Gson format used before the binary
+ * codec), plus the Jackson rendering the controller applies to the same values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final Type STUDENT_LIST=new TypeToken<List<Student>>(){}.getType();
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    @Param({"100", "10000"})
+    public int listSize;
+
+    private CacheCodec cacheCodec;
+    private ObjectMapper objectMapper;
+    private Student student;
+    private List<Student> students;
+    private byte[] encodedStudent;
+    private byte[] encodedStudents;
+
+    @Setup
+    public void setUp(){
+        cacheCodec="binary".equals(codec) ? new BinaryCacheCodec() : new JsonCacheCodec();
+        //configured like the one Spring MVC renders responses with
+        objectMapper=Jackson2ObjectMapperBuilder.json().build();
+        students=BenchmarkApplication.students(listSize);
+        for(int i=0;i<students.size();i++) students.get(i).setRollNo(i+1);
+        student=students.get(0);
+        encodedStudent=cacheCodec.encode(student);
+        encodedStudents=cacheCodec.encode(students);
+    }
+
+    @Benchmark
+    public byte[] encodeStudent(){
+        return cacheCodec.encode(student);
+    }
+
+    @Benchmark
+    public Student decodeStudent(){
+        return cacheCodec.decode(encodedStudent, Student.class);
+    }
+
+    @Benchmark
+    public byte[] encodeList(){
+        return cacheCodec.encode(students);
+    }
+
+    @Benchmark
+    public List<Student> decodeList(){
+        return cacheCodec.decode(encodedStudents, STUDENT_LIST);
+    }
+
+    @Benchmark
+    public byte[] renderStudent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public byte[] renderList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(students);
+    }
+}
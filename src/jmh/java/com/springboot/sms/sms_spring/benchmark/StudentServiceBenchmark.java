@@ -0,0 +1,61 @@
+package com.springboot.sms.sms_spring.benchmark;
+
+import com.springboot.sms.sms_spring.service.StudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code StudentService} read paths with the cache stand-in either warm (hit) or switched off (miss, every call
+ * goes to the embedded database).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    @Param({"hit", "miss"})
+    public String cache;
+
+    @Param({"1000"})
+    public int students;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private int[] ids;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        context=BenchmarkApplication.start(false);
+        ids=BenchmarkApplication.load(context, students);
+        studentService=context.getBean(StudentService.class);
+        context.getBean(InMemoryStudentCache.class).setEnabled("hit".equals(cache));
+        studentService.getAllStudent(null);
+        for(int id:ids) studentService.getStudent(id, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getStudent(Cursor cursor){
+        return studentService.getStudent(ids[cursor.next++%ids.length], null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getAllStudent(){
+        return studentService.getAllStudent(null);
+    }
+}
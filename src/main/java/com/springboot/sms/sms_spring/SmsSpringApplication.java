@@ -2,12 +2,34 @@ package com.springboot.sms.sms_spring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+//R2DBC and Lettuce are only wired by the reactive profile (config.ReactiveConfig), the servlet stack uses JPA and Jedis
+@SpringBootApplication(exclude = {
+		R2dbcAutoConfiguration.class,
+		R2dbcDataAutoConfiguration.class,
+		R2dbcRepositoriesAutoConfiguration.class,
+		R2dbcTransactionManagerAutoConfiguration.class,
+		RedisAutoConfiguration.class,
+		RedisReactiveAutoConfiguration.class,
+		RedisRepositoriesAutoConfiguration.class
+})
+@EnableScheduling
 public class SmsSpringApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SmsSpringApplication.class, args);
+		SpringApplication application=new SpringApplication(SmsSpringApplication.class);
+		//startup steps are recorded and served on /actuator/startup, to see where time-to-ready goes
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,107 @@
+package com.springboot.sms.sms_spring.admission;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit of one endpoint that follows the latency it observes (AIMD).
+ * The baseline of an unloaded database is a low percentile of the latencies, taken per window of
+ * {@value #WINDOW} requests, so a few unusually fast answers cannot pin it. While the smoothed latency stays within
+ * {@code tolerance} times the baseline and the limit is actually in use, the limit grows by one per limit's
+ * worth of completed requests; a slower smoothed latency or an overloaded request shrinks it by a tenth.
+ * A faster window lowers the baseline at once, a slower one only raises it by a fraction, so a permanent shift
+ * in latency is eventually accepted as the new normal while a passing overload is not.
+ */
+public class AdaptiveLimit {
+
+    private static final double BACKOFF=0.9;
+    private static final double SMOOTHING=0.1;
+    private static final int WINDOW=100;
+    private static final double BASELINE_PERCENTILE=0.1;
+    private static final double BASELINE_DRIFT=0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight=new AtomicInteger();
+    private volatile double limit;
+    private final long[] window=new long[WINDOW];
+    private int windowed;
+    private boolean baselineSettled;
+    private double baselineNanos;
+    private double smoothedNanos;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance){
+        this.minLimit=Math.max(1, minLimit);
+        this.maxLimit=Math.max(this.minLimit, maxLimit);
+        this.tolerance=tolerance;
+        this.limit=Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot unless the limit is reached. Every successful call must be paired with one {@link #release}.
+     */
+    public boolean tryAcquire(){
+        while(true){
+            int current=inFlight.get();
+            if(current>=(int) limit) return false;
+            if(inFlight.compareAndSet(current, current+1)) return true;
+        }
+    }
+
+    /**
+     * Returns a slot. {@code overloaded} marks a request that failed because the database could not keep up,
+     * it shrinks the limit whatever its latency was.
+     */
+    public void release(long elapsedNanos, boolean overloaded){
+        int before=inFlight.getAndDecrement();
+        update(elapsedNanos, overloaded, before);
+    }
+
+    /**
+     * Returns a slot without a sample, for a request that was answered without the database doing any work.
+     */
+    public void releaseUnmeasured(){
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long elapsedNanos, boolean overloaded, int inFlightBefore){
+        updateBaseline(elapsedNanos);
+        smoothedNanos=smoothedNanos==0 ? elapsedNanos : smoothedNanos+(elapsedNanos-smoothedNanos)*SMOOTHING;
+        if(overloaded || smoothedNanos>baselineNanos*tolerance){
+            limit=Math.max(minLimit, limit*BACKOFF);
+        }else if(2*inFlightBefore>=limit){
+            //an idle endpoint has no evidence the database could take more
+            limit=Math.min(maxLimit, limit+1/limit);
+        }
+    }
+
+    private void updateBaseline(long elapsedNanos){
+        window[windowed++]=elapsedNanos;
+        if(baselineSettled && windowed<WINDOW) return;
+        long[] sorted=Arrays.copyOf(window, windowed);
+        Arrays.sort(sorted);
+        long low=sorted[(int) (windowed*BASELINE_PERCENTILE)];
+        if(windowed<WINDOW){
+            //provisional until the first window is complete
+            baselineNanos=low;
+            return;
+        }
+        windowed=0;
+        if(!baselineSettled || low<baselineNanos){
+            baselineNanos=low;
+        }else{
+            baselineNanos+=(low-baselineNanos)*BASELINE_DRIFT;
+        }
+        baselineSettled=true;
+    }
+
+    public int getLimit(){
+        return (int) limit;
+    }
+
+    public int getInFlight(){
+        return inFlight.get();
+    }
+}
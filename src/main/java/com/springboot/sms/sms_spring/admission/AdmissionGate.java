@@ -0,0 +1,111 @@
+package com.springboot.sms.sms_spring.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a request may start. Each endpoint has its own {@link AdaptiveLimit}, and all of them
+ * share one cap on the requests in flight. Bulk writes only get the first {@code bulk-share} of that cap,
+ * so once the database slows down they are turned away before any single-student read is.
+ * <p>
+ * Meters: {@code sms.admission.limit} and {@code sms.admission.in-flight} per endpoint,
+ * {@code sms.admission.rejected} per endpoint and outcome ({@code rejected}, or {@code cached} when the cached value was served instead).
+ */
+@Component
+@Profile("!reactive")
+public class AdmissionGate {
+
+    //controller methods that write many students per request
+    private static final Set<String> BULK=Set.of("createStudents", "updateStudents", "deleteStudents", "importStudents", "createExport");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sms.admission.initial-limit:20}")
+    private int initialLimit=20;
+
+    @Value("${sms.admission.min-limit:2}")
+    private int minLimit=2;
+
+    @Value("${sms.admission.max-limit:200}")
+    private int maxLimit=200;
+
+    //latency up to this multiple of the fastest seen still counts as healthy
+    @Value("${sms.admission.latency-tolerance:2.0}")
+    private double tolerance=2.0;
+
+    @Value("${sms.admission.max-concurrency:200}")
+    private int maxConcurrency=200;
+
+    @Value("${sms.admission.bulk-share:0.25}")
+    private double bulkShare=0.25;
+
+    private final Map<String, AdaptiveLimit> limits=new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight=new AtomicInteger();
+
+    public static boolean isBulk(String endpoint){
+        return BULK.contains(endpoint);
+    }
+
+    /**
+     * A permit for the endpoint, or null when the request should be rejected.
+     */
+    public Permit tryAcquire(String endpoint){
+        int cap=isBulk(endpoint) ? Math.max(1, (int) (maxConcurrency*bulkShare)) : maxConcurrency;
+        while(true){
+            int current=inFlight.get();
+            if(current>=cap) return null;
+            if(inFlight.compareAndSet(current, current+1)) break;
+        }
+        AdaptiveLimit limit=limit(endpoint);
+        if(!limit.tryAcquire()){
+            inFlight.decrementAndGet();
+            return null;
+        }
+        return new Permit(limit, System.nanoTime());
+    }
+
+    public void release(Permit permit, boolean overloaded){
+        permit.limit().release(System.nanoTime()-permit.startNanos(), overloaded);
+        inFlight.decrementAndGet();
+    }
+
+    //a request the database had no part in: neither its latency nor its status says anything about the database
+    public void releaseUnmeasured(Permit permit){
+        permit.limit().releaseUnmeasured();
+        inFlight.decrementAndGet();
+    }
+
+    public void rejected(String endpoint, String outcome){
+        Counter.builder("sms.admission.rejected")
+                .description("Requests turned away by admission control")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private AdaptiveLimit limit(String endpoint){
+        return limits.computeIfAbsent(endpoint, e->{
+            AdaptiveLimit limit=new AdaptiveLimit(initialLimit, minLimit, maxLimit, tolerance);
+            Gauge.builder("sms.admission.limit", limit, AdaptiveLimit::getLimit)
+                    .description("Current concurrency limit").tag("endpoint", e).register(meterRegistry);
+            Gauge.builder("sms.admission.in-flight", limit, AdaptiveLimit::getInFlight)
+                    .description("Requests being served").tag("endpoint", e).register(meterRegistry);
+            return limit;
+        });
+    }
+
+    public record Permit(AdaptiveLimit limit, long startNanos) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.springboot.sms.sms_spring.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.reflect.TypeToken;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.ETags;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.entity.Student;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission control in front of the student endpoints. A request that {@link AdmissionGate} turns away is
+ * answered at once with 503 and {@code Retry-After} instead of waiting for a database connection. When the
+ * rejected request is a plain read of one student or of all students and Redis (or the near cache) holds the
+ * value, the cached value is served as the service would serve it, tagged the same way, so a matching
+ * {@code If-None-Match} still gets a 304. Only requests that borrowed a database connection are timed for
+ * the limit, see {@link DatabaseAccess}; a 503 with {@code Retry-After} that the handler answered itself
+ * is not taken as a sign of overload either. The permit of a streamed response is held until the async dispatch
+ * completes, and a streamed response always counts as database work.
+ */
+@Component
+@Profile("!reactive")
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT=AdmissionInterceptor.class.getName()+".permit";
+    private static final String STREAMED=AdmissionInterceptor.class.getName()+".streamed";
+    private static final Type STUDENT_LIST_TYPE=new TypeToken<List<Student>>(){}.getType();
+
+    @Autowired
+    private AdmissionGate admissionGate;
+
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private StudentNearCache studentNearCache;
+
+    @Autowired
+    private CacheCodec cacheCodec;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${sms.admission.enabled:true}")
+    private boolean enabled=true;
+
+    @Value("${sms.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds=1;
+
+    @Value("${sms.admission.serve-cached:true}")
+    private boolean serveCached=true;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if(!enabled || !(handler instanceof HandlerMethod method) || request.getDispatcherType()==DispatcherType.ASYNC) return true;
+        String endpoint=method.getMethod().getName();
+        AdmissionGate.Permit permit=admissionGate.tryAcquire(endpoint);
+        if(permit!=null){
+            request.setAttribute(PERMIT, permit);
+            DatabaseAccess.start();
+            return true;
+        }
+        Object cached=serveCached ? cached(endpoint, request) : null;
+        if(cached!=null){
+            admissionGate.rejected(endpoint, "cached");
+            String etag=etag(cached);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if(ETags.noneMatchHit(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)){
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return false;
+            }
+            response.setStatus(HttpStatus.FOUND.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), cached);
+            return false;
+        }
+        admissionGate.rejected(endpoint, "rejected");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        return false;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler){
+        if(request.getAttribute(PERMIT)==null) return;
+        //the rest runs on other threads, out of sight of DatabaseAccess
+        DatabaseAccess.stop();
+        request.setAttribute(STREAMED, Boolean.TRUE);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex){
+        Object permit=request.getAttribute(PERMIT);
+        if(permit==null) return;
+        request.removeAttribute(PERMIT);
+        boolean usedDatabase=DatabaseAccess.stop() || request.getAttribute(STREAMED)!=null;
+        int status=response.getStatus();
+        if(!usedDatabase || (ex==null && status==HttpStatus.SERVICE_UNAVAILABLE.value()
+                && response.getHeader(HttpHeaders.RETRY_AFTER)!=null)){
+            //answered from the cache, or the handler's own "come back later" (a full write-behind queue)
+            admissionGate.releaseUnmeasured((AdmissionGate.Permit) permit);
+            return;
+        }
+        admissionGate.release((AdmissionGate.Permit) permit, ex!=null || status>=500);
+    }
+
+    //cached value of a plain GET /students/{id} or GET /students, null when there is none
+    private Object cached(String endpoint, HttpServletRequest request){
+        if(!"GET".equals(request.getMethod())) return null;
+        if("getStudent".equals(endpoint)){
+            @SuppressWarnings("unchecked")
+            Map<String, String> variables=(Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            int id;
+            try{
+                id=Integer.parseInt(variables.get("id"));
+            }catch (RuntimeException e){
+                return null;
+            }
+            Student nearCached=studentNearCache.get(id);
+            return nearCached!=null ? nearCached : cacheCodec.decode(studentCache.get(CacheKeys.student(id)), Student.class);
+        }
+        if("getAllStudents".equals(endpoint) && request.getQueryString()==null){
+            return cacheCodec.decode(studentCache.get(CacheKeys.ALL_STUDENTS), STUDENT_LIST_TYPE);
+        }
+        return null;
+    }
+
+    //the tag the service would have sent with the same value
+    @SuppressWarnings("unchecked")
+    private static String etag(Object cached){
+        return cached instanceof Student student ? ETags.of(student) : ETags.of((List<Student>) cached);
+    }
+}
@@ -0,0 +1,30 @@
+package com.springboot.sms.sms_spring.admission;
+
+/**
+ * Whether the admitted request on the current thread has borrowed a database connection. Requests answered
+ * from the near cache or Redis never do, their latency says nothing about the database and is kept out of
+ * {@link AdaptiveLimit}. The mark is set by {@link DatabaseAccessPostProcessor} on every connection handed out.
+ */
+public final class DatabaseAccess {
+
+    private static final ThreadLocal<boolean[]> CURRENT=new ThreadLocal<>();
+
+    private DatabaseAccess(){
+    }
+
+    static void start(){
+        CURRENT.set(new boolean[1]);
+    }
+
+    //true when a connection was borrowed since start
+    static boolean stop(){
+        boolean[] used=CURRENT.get();
+        CURRENT.remove();
+        return used!=null && used[0];
+    }
+
+    static void connected(){
+        boolean[] used=CURRENT.get();
+        if(used!=null) used[0]=true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.springboot.sms.sms_spring.admission;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Wraps the application's {@link DataSource} so that every connection it hands out marks {@link DatabaseAccess}.
+ * Spring Boot's pool metrics and health checks unwrap a {@link DelegatingDataSource}, they still see the pool,
+ * and closing the wrapper closes the pool it wraps.
+ */
+@Component
+@Profile("!reactive")
+public class DatabaseAccessPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName){
+        if(!(bean instanceof DataSource dataSource) || bean instanceof MarkingDataSource) return bean;
+        return new MarkingDataSource(dataSource);
+    }
+
+    private static final class MarkingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+        MarkingDataSource(DataSource target){
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            DatabaseAccess.connected();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            DatabaseAccess.connected();
+            return super.getConnection(username, password);
+        }
+
+        @Override
+        public void close() throws Exception {
+            if(obtainTargetDataSource() instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.springboot.sms.sms_spring.analytics;
+
+import com.springboot.sms.sms_spring.dto.PercentileStats;
+import com.springboot.sms.sms_spring.dto.StudentRank;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Ranking and distribution queries over a {@link StudentColumns} snapshot, switched on with
+ * {@code sms.analytics.enabled=true}. The snapshot is loaded at startup (see StartupWarmup), kept current from
+ * {@link StudentChangedEvent}s and reloaded periodically to fold in other nodes' writes, like StudentStatistics.
+ * <p>
+ * Queries split the rows into chunks scanned in parallel on a fork-join pool of {@code sms.analytics.parallelism}
+ * threads. The scans read primitives straight from the columns, nothing is allocated per row; a percentile query
+ * allocates one float array for the matching percentages.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "sms.analytics.enabled", havingValue = "true")
+public class StudentAnalytics {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentAnalytics.class);
+
+    //branch filter matching every row
+    private static final int ANY=-2;
+    private static final int CHUNK=64*1024;
+
+    @Autowired
+    private StudentExportRepository studentExportRepository;
+
+    @Value("${sms.analytics.parallelism:4}")
+    private int parallelism=4;
+
+    private ForkJoinPool pool;
+    private volatile StudentColumns columns=new StudentColumns();
+
+    @PostConstruct
+    void start(){
+        pool=new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void stop(){
+        pool.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event){
+        Student before=event.before();
+        Student after=event.after();
+        StudentColumns current=columns;
+        if(after!=null) current.put(after.getRollNo(), after.getPercentage(), after.getBranch());
+        else if(before!=null) current.delete(before.getRollNo());
+    }
+
+    /**
+     * Nearest-rank percentiles of the percentages of one branch, or of everyone when branch is null.
+     */
+    public PercentileStats percentiles(String branch, double[] percentiles){
+        StudentColumns current=columns;
+        current.lock.readLock().lock();
+        try{
+            int code=branch==null ? ANY : current.codeOf(branch);
+            float[] values=select(current, code);
+            pool.submit(()->Arrays.parallelSort(values)).join();
+            float[] result=new float[percentiles.length];
+            for(int i=0;i<percentiles.length;i++){
+                int rank=(int) Math.ceil(percentiles[i]/100*values.length);
+                result[i]=values.length==0 ? Float.NaN : values[Math.max(0, rank-1)];
+            }
+            return new PercentileStats(branch, values.length, percentiles, result);
+        }finally{
+            current.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Position of the student by percentage within its branch, or among everyone; ties share a rank.
+     * Null for an unknown roll number.
+     */
+    public StudentRank rank(int rollNo, boolean withinBranch){
+        StudentColumns current=columns;
+        current.lock.readLock().lock();
+        try{
+            int row=current.find(rollNo);
+            if(row<0 || current.branch(row)==StudentColumns.DELETED) return null;
+            float percentage=current.percentage(row);
+            int code=withinBranch ? current.branch(row) : ANY;
+            long[] counts=pool.submit(()->IntStream.range(0, chunks(current)).parallel()
+                    .mapToObj(c->countChunk(current, c, code, percentage))
+                    .reduce(new long[2], (a, b)->new long[]{a[0]+b[0], a[1]+b[1]})).join();
+            long better=counts[0];
+            long total=counts[1];
+            double percentile=total==0 ? 0 : 100.0*(total-better-1)/total;
+            return new StudentRank(rollNo, current.branchName(current.branch(row)), percentage, better+1, total, percentile);
+        }finally{
+            current.lock.readLock().unlock();
+        }
+    }
+
+    public int size(){
+        StudentColumns current=columns;
+        current.lock.readLock().lock();
+        try{
+            return current.rows();
+        }finally{
+            current.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a fresh snapshot through the export cursor and swaps it in. Writes committing while it loads
+     * may be missing until the next reload.
+     */
+    @Scheduled(initialDelayString = "${sms.analytics.rebuild-interval-millis:300000}",
+            fixedDelayString = "${sms.analytics.rebuild-interval-millis:300000}")
+    public void rebuild(){
+        long start=System.nanoTime();
+        StudentColumns rebuilt=new StudentColumns();
+        try{
+            studentExportRepository.forEach((rollNo, name, percentage, branch)->rebuilt.put(rollNo, percentage, branch));
+        }catch (IOException | RuntimeException e){
+            log.warn("Could not load the analytics snapshot: {}", e.getMessage());
+            return;
+        }
+        columns=rebuilt;
+        log.info("Analytics snapshot of {} students loaded in {} ms", rebuilt.rows(), (System.nanoTime()-start)/1_000_000);
+    }
+
+    //percentages of the matching rows, counted per chunk in parallel and then copied into place in parallel
+    private float[] select(StudentColumns current, int code){
+        int chunks=chunks(current);
+        int[] offsets=pool.submit(()->IntStream.range(0, chunks).parallel().map(c->matches(current, c, code)).toArray()).join();
+        int total=0;
+        for(int c=0;c<chunks;c++){
+            int count=offsets[c];
+            offsets[c]=total;
+            total+=count;
+        }
+        float[] values=new float[total];
+        pool.submit(()->IntStream.range(0, chunks).parallel().forEach(c->{
+            int at=offsets[c];
+            for(int row=c*CHUNK, end=Math.min(current.size(), row+CHUNK);row<end;row++){
+                if(matches(current.branch(row), code)) values[at++]=current.percentage(row);
+            }
+        })).join();
+        return values;
+    }
+
+    private static int matches(StudentColumns current, int chunk, int code){
+        int count=0;
+        for(int row=chunk*CHUNK, end=Math.min(current.size(), row+CHUNK);row<end;row++){
+            if(matches(current.branch(row), code)) count++;
+        }
+        return count;
+    }
+
+    //{rows above the percentage, rows} of one chunk
+    private static long[] countChunk(StudentColumns current, int chunk, int code, float percentage){
+        long better=0;
+        long total=0;
+        for(int row=chunk*CHUNK, end=Math.min(current.size(), row+CHUNK);row<end;row++){
+            if(!matches(current.branch(row), code)) continue;
+            total++;
+            if(current.percentage(row)>percentage) better++;
+        }
+        return new long[]{better, total};
+    }
+
+    private static boolean matches(int branch, int code){
+        return branch!=StudentColumns.DELETED && (code==ANY || branch==code);
+    }
+
+    private static int chunks(StudentColumns current){
+        return (current.size()+CHUNK-1)/CHUNK;
+    }
+}
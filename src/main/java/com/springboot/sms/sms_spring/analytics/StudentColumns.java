@@ -0,0 +1,172 @@
+package com.springboot.sms.sms_spring.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The student table as three columns in direct (off-heap) buffers, sorted by roll number: roll numbers,
+ * percentages and dictionary codes of the branches. A row costs 12 bytes outside the Java heap and no object.
+ * <p>
+ * Writes change rows in place under the write lock; new roll numbers come from the sequence, so inserts are
+ * appends. A delete only marks its row, marked rows are squeezed out once they are a quarter of the rows.
+ * Scans hold the read lock and see a consistent table.
+ */
+class StudentColumns {
+
+    //branch code of a deleted row; the null branch has a code of its own
+    static final int DELETED=-1;
+
+    private static final int INITIAL_CAPACITY=1024;
+
+    final ReentrantReadWriteLock lock=new ReentrantReadWriteLock();
+
+    private IntBuffer rollNos;
+    private FloatBuffer percentages;
+    private IntBuffer branches;
+    private int size;
+    private int deleted;
+
+    private final List<String> dictionary=new ArrayList<>();
+    private final Map<String, Integer> codes=new HashMap<>();
+
+    StudentColumns(){
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Inserts, or overwrites the row with the same roll number.
+     */
+    void put(int rollNo, float percentage, String branch){
+        lock.writeLock().lock();
+        try{
+            int at=size==0 || rollNo>rollNos.get(size-1) ? -size-1 : find(rollNo);
+            if(at>=0){
+                if(branches.get(at)==DELETED) deleted--;
+                percentages.put(at, percentage);
+                branches.put(at, code(branch));
+                return;
+            }
+            at=-at-1;
+            if(size==rollNos.capacity()) allocate(size+(size>>1));
+            if(at<size) shift(at, 1);
+            rollNos.put(at, rollNo);
+            percentages.put(at, percentage);
+            branches.put(at, code(branch));
+            size++;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    void delete(int rollNo){
+        lock.writeLock().lock();
+        try{
+            int at=find(rollNo);
+            if(at<0 || branches.get(at)==DELETED) return;
+            branches.put(at, DELETED);
+            if(++deleted*4>size) compact();
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    //the following are read under the read lock
+
+    int size(){
+        return size;
+    }
+
+    int rows(){
+        return size-deleted;
+    }
+
+    int rollNo(int row){
+        return rollNos.get(row);
+    }
+
+    float percentage(int row){
+        return percentages.get(row);
+    }
+
+    int branch(int row){
+        return branches.get(row);
+    }
+
+    //position of the roll number, or (-(insertion point)-1)
+    int find(int rollNo){
+        int lo=0;
+        int hi=size-1;
+        while(lo<=hi){
+            int mid=(lo+hi)>>>1;
+            int value=rollNos.get(mid);
+            if(value<rollNo) lo=mid+1;
+            else if(value>rollNo) hi=mid-1;
+            else return mid;
+        }
+        return -lo-1;
+    }
+
+    //code of the branch, DELETED for one that never occurred, so no row matches it
+    int codeOf(String branch){
+        Integer code=codes.get(branch);
+        return code==null ? DELETED : code;
+    }
+
+    String branchName(int code){
+        return dictionary.get(code);
+    }
+
+    private int code(String branch){
+        Integer code=codes.get(branch);
+        if(code!=null) return code;
+        dictionary.add(branch);
+        codes.put(branch, dictionary.size()-1);
+        return dictionary.size()-1;
+    }
+
+    private void shift(int from, int by){
+        for(int i=size-1;i>=from;i--){
+            rollNos.put(i+by, rollNos.get(i));
+            percentages.put(i+by, percentages.get(i));
+            branches.put(i+by, branches.get(i));
+        }
+    }
+
+    private void compact(){
+        int kept=0;
+        for(int i=0;i<size;i++){
+            if(branches.get(i)==DELETED) continue;
+            rollNos.put(kept, rollNos.get(i));
+            percentages.put(kept, percentages.get(i));
+            branches.put(kept, branches.get(i));
+            kept++;
+        }
+        size=kept;
+        deleted=0;
+    }
+
+    private void allocate(int capacity){
+        IntBuffer newRollNos=direct(capacity).asIntBuffer();
+        FloatBuffer newPercentages=direct(capacity).asFloatBuffer();
+        IntBuffer newBranches=direct(capacity).asIntBuffer();
+        if(rollNos!=null){
+            newRollNos.put(0, rollNos, 0, size);
+            newPercentages.put(0, percentages, 0, size);
+            newBranches.put(0, branches, 0, size);
+        }
+        rollNos=newRollNos;
+        percentages=newPercentages;
+        branches=newBranches;
+    }
+
+    private static ByteBuffer direct(int values){
+        return ByteBuffer.allocateDirect(values*4).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,213 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.entity.Student;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of cached students.
+ * <pre>
+ * value   := version:u8 tag:u8 body
+ * student := rollNo:i32 version:varint percentage:f32 name:string branch:string
+ * list    := dictSize:varint branch:string* count:varint (rollNo:i32 version:varint percentage:f32 branchRef:varint name:string)*
+ * page    := list hasNext:u8 [nextAfter:i32]
+ * slice   := list page:varint size:varint hasNext:u8
+ * string  := varint(byteLength+1) utf8   (0 encodes null)
+ * </pre>
+ * Lists store each distinct branch once and refer to it by its position in the dictionary (0 for null).
+ * A value whose tag is not the requested type decodes to null, a miss, rather than a value of the wrong class.
+ * Values starting with '{' or '[' were written by {@link JsonCacheCodec} and are still readable; values of
+ * an older version are treated as a miss.
+ */
+public class BinaryCacheCodec implements CacheCodec {
+
+    //2 added the row version of each student
+    static final byte VERSION=2;
+
+    private static final byte STUDENT=1;
+    private static final byte LIST=2;
+    private static final byte PAGE=3;
+    private static final byte SLICE=4;
+
+    private final JsonCacheCodec legacy=new JsonCacheCodec();
+
+    @Override
+    public byte[] encode(Object value){
+        Output out=new Output();
+        out.write(VERSION);
+        if(value instanceof Student student){
+            out.write(STUDENT);
+            out.writeInt(student.getRollNo());
+            out.writeVarint(student.getVersion());
+            out.writeFloat(student.getPercentage());
+            out.writeString(student.getName());
+            out.writeString(student.getBranch());
+        }else if(value instanceof List<?> list){
+            out.write(LIST);
+            writeList(out, list);
+        }else if(value instanceof StudentPage page){
+            out.write(PAGE);
+            writeList(out, page.getStudents());
+            out.write(page.getNextAfter()==null ? 0 : 1);
+            if(page.getNextAfter()!=null) out.writeInt(page.getNextAfter());
+        }else if(value instanceof StudentSlice slice){
+            out.write(SLICE);
+            writeList(out, slice.getStudents());
+            out.writeVarint(slice.getPage());
+            out.writeVarint(slice.getSize());
+            out.write(slice.isHasNext() ? 1 : 0);
+        }else{
+            throw new IllegalArgumentException("Cannot encode "+value.getClass());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] bytes, Type type){
+        if(JsonCacheCodec.isJson(bytes)) return legacy.decode(bytes, type);
+        if(bytes==null || bytes.length<2 || bytes[0]!=VERSION) return null;
+        Class<?> shape=shape(bytes[1]);
+        if(shape==null || !rawType(type).isAssignableFrom(shape)) return null;
+        ByteBuffer in=ByteBuffer.wrap(bytes, 2, bytes.length-2);
+        try{
+            return (T) switch (bytes[1]){
+                case STUDENT -> readStudent(in);
+                case LIST -> readList(in);
+                case PAGE -> {
+                    List<Student> students=readList(in);
+                    yield new StudentPage(students, in.get()==0 ? null : in.getInt());
+                }
+                case SLICE -> new StudentSlice(readList(in), readVarint(in), readVarint(in), in.get()!=0);
+                default -> null;
+            };
+        }catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e){
+            return null;
+        }
+    }
+
+    //the class a tag decodes to, null for an unknown tag
+    private static Class<?> shape(byte tag){
+        return switch (tag){
+            case STUDENT -> Student.class;
+            case LIST -> List.class;
+            case PAGE -> StudentPage.class;
+            case SLICE -> StudentSlice.class;
+            default -> null;
+        };
+    }
+
+    private static Class<?> rawType(Type type){
+        if(type instanceof Class<?> c) return c;
+        if(type instanceof ParameterizedType p && p.getRawType() instanceof Class<?> c) return c;
+        return Object.class;
+    }
+
+    private static void writeList(Output out, List<?> students){
+        Map<String, Integer> dictionary=new HashMap<>();
+        List<String> branches=new ArrayList<>();
+        for(Object o:students){
+            String branch=((Student) o).getBranch();
+            if(branch!=null && dictionary.putIfAbsent(branch, branches.size()+1)==null) branches.add(branch);
+        }
+        out.writeVarint(branches.size());
+        for(String branch:branches) out.writeString(branch);
+        out.writeVarint(students.size());
+        for(Object o:students){
+            Student student=(Student) o;
+            out.writeInt(student.getRollNo());
+            out.writeVarint(student.getVersion());
+            out.writeFloat(student.getPercentage());
+            out.writeVarint(student.getBranch()==null ? 0 : dictionary.get(student.getBranch()));
+            out.writeString(student.getName());
+        }
+    }
+
+    private static List<Student> readList(ByteBuffer in){
+        String[] branches=new String[readVarint(in)+1];
+        for(int i=1;i<branches.length;i++) branches[i]=readString(in);
+        int count=readVarint(in);
+        List<Student> students=new ArrayList<>(Math.min(count, in.remaining()/10));
+        for(int i=0;i<count;i++){
+            int rollNo=in.getInt();
+            int version=readVarint(in);
+            float percentage=in.getFloat();
+            String branch=branches[readVarint(in)];
+            students.add(new Student(rollNo, readString(in), percentage, branch, version));
+        }
+        return students;
+    }
+
+    private static Student readStudent(ByteBuffer in){
+        int rollNo=in.getInt();
+        int version=readVarint(in);
+        float percentage=in.getFloat();
+        String name=readString(in);
+        return new Student(rollNo, name, percentage, readString(in), version);
+    }
+
+    private static String readString(ByteBuffer in){
+        int length=readVarint(in)-1;
+        if(length<0) return null;
+        String value=new String(in.array(), in.arrayOffset()+in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position()+length);
+        return value;
+    }
+
+    private static int readVarint(ByteBuffer in){
+        int value=0;
+        for(int shift=0;shift<35;shift+=7){
+            byte b=in.get();
+            value|=(b&0x7F)<<shift;
+            if(b>=0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output(){
+            super(64);
+        }
+
+        void writeInt(int v){
+            write(v>>>24);
+            write(v>>>16);
+            write(v>>>8);
+            write(v);
+        }
+
+        void writeFloat(float v){
+            writeInt(Float.floatToIntBits(v));
+        }
+
+        void writeVarint(int v){
+            while((v&~0x7F)!=0){
+                write((v&0x7F)|0x80);
+                v>>>=7;
+            }
+            write(v);
+        }
+
+        void writeString(String s){
+            if(s==null){
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes=s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length+1);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.springboot.sms.sms_spring.cache;
+
+import java.lang.reflect.Type;
+
+/**
+ * Turns cached values into the bytes stored in Redis and back.
+ * Supported values are {@code Student}, {@code List<Student>}, {@code StudentPage} and {@code StudentSlice}.
+ * {@link #decode} returns null for bytes it cannot read (for example values written by another codec
+ * during a rollout), callers treat that as a cache miss.
+ */
+public interface CacheCodec {
+
+    byte[] encode(Object value);
+
+    <T> T decode(byte[] bytes, Type type);
+}
@@ -0,0 +1,59 @@
+package com.springboot.sms.sms_spring.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Redis key layout shared by the servlet and the reactive student services, so either kind of node
+ * invalidates what the other one cached.
+ */
+public final class CacheKeys {
+
+    public static final String ALL_STUDENTS="students:all";
+    //hash of cached keyset pages, one field per after:limit, dropped as a whole on every write
+    public static final String PAGES="students:pages";
+    //hash of cached filter/top-N results across all branches
+    public static final String QUERY="students:query";
+    //prefix of the per-branch hash of cached filter/top-N results
+    public static final String BRANCH_PREFIX="students:branch:";
+    //key family of the students<id> keys and of the per-branch hashes, for metrics
+    public static final String STUDENT_FAMILY="students";
+    public static final String BRANCH_FAMILY="students:branch";
+
+    private CacheKeys(){
+    }
+
+    public static String student(int id){
+        return "students"+id;
+    }
+
+    //entity tag of the value cached under key, written and dropped together with it
+    public static String etag(String key){
+        return key+":etag";
+    }
+
+    public static String query(String branch){
+        return branch==null ? QUERY : BRANCH_PREFIX+branch;
+    }
+
+    public static String family(String hashKey){
+        return hashKey.startsWith(BRANCH_PREFIX) ? BRANCH_FAMILY : hashKey;
+    }
+
+    //the given students' own keys, every listing and the cached query results of the touched branches
+    public static String[] stale(Collection<Integer> ids, Collection<String> branches){
+        List<String> keys=new ArrayList<>(2*ids.size()+branches.size()+4);
+        for(Integer id:ids){
+            keys.add(student(id));
+            keys.add(etag(student(id)));
+        }
+        keys.add(ALL_STUDENTS);
+        keys.add(etag(ALL_STUDENTS));
+        keys.add(PAGES);
+        keys.add(QUERY);
+        for(String branch:new LinkedHashSet<>(branches)) keys.add(BRANCH_PREFIX+branch);
+        return keys.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.springboot.sms.sms_spring.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Minimal circuit breaker guarding calls to Redis.
+ * After {@code failureThreshold} consecutive failures (or calls slower than {@code slowCall})
+ * the breaker opens and callers skip Redis for {@code openDuration}. After that a single
+ * trial call is let through; its outcome closes or re-opens the breaker.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+
+    private final AtomicReference<State> state=new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures=new AtomicInteger();
+    private final AtomicLong openedAt=new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Duration slowCall){
+        this.failureThreshold=Math.max(1, failureThreshold);
+        this.openNanos=openDuration.toNanos();
+        this.slowCallNanos=slowCall.toNanos();
+    }
+
+    public boolean allowRequest(){
+        State current=state.get();
+        if(current==State.CLOSED) return true;
+        if(current==State.OPEN && System.nanoTime()-openedAt.get()>=openNanos){
+            //only one caller wins the transition and performs the trial call
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    public void recordSuccess(long elapsedNanos){
+        if(elapsedNanos>slowCallNanos){
+            recordFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public void recordFailure(){
+        if(state.get()==State.HALF_OPEN || consecutiveFailures.incrementAndGet()>=failureThreshold){
+            open();
+        }
+    }
+
+    /**
+     * The allowed call never reached Redis (for example no pooled connection was free). Counts as neither
+     * success nor failure; if it was the trial call the next caller gets to make it instead.
+     */
+    public void abandon(){
+        state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    public State getState(){
+        return state.get();
+    }
+
+    private void open(){
+        openedAt.set(System.nanoTime());
+        state.set(State.OPEN);
+        consecutiveFailures.set(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import org.springframework.http.ETag;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong entity tags of the student resources. A student's tag is its row version; the tag of a list
+ * is a hash of the roll numbers and versions in list order, so it changes with every create, update and delete.
+ * Tags are cached next to the values under {@link CacheKeys#etag}, a conditional GET compares against
+ * that key without touching the cached body.
+ */
+public final class ETags {
+
+    private ETags(){
+    }
+
+    public static String of(Student student){
+        return "\""+student.getVersion()+"\"";
+    }
+
+    public static String of(List<Student> students){
+        long hash=students.size();
+        for(Student student:students){
+            hash=mix(hash^student.getRollNo());
+            hash=mix(hash^student.getVersion());
+        }
+        return "\""+Long.toHexString(hash)+"\"";
+    }
+
+    public static byte[] encode(String etag){
+        return etag.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String decode(byte[] etag){
+        return etag==null ? null : new String(etag, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * True if an If-None-Match header names the current tag or is {@code *}, compared weakly as RFC 9110 asks.
+     */
+    public static boolean noneMatchHit(String ifNoneMatch, String etag){
+        if(ifNoneMatch==null || etag==null) return false;
+        ETag current=ETag.create(etag);
+        for(ETag tag:ETag.parse(ifNoneMatch)){
+            if(tag.isWildcard() || tag.compare(current, false)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Row versions named by a strong If-Match list, null for {@code *}. Weak and foreign tags never match
+     * and are left out, so the result may be empty.
+     */
+    public static List<Integer> versions(String ifMatch){
+        List<Integer> versions=new ArrayList<>();
+        for(ETag tag:ETag.parse(ifMatch)){
+            if(tag.isWildcard()) return null;
+            if(tag.weak()) continue;
+            try{
+                versions.add(Integer.parseInt(tag.tag()));
+            }catch (NumberFormatException ignored){
+            }
+        }
+        return versions;
+    }
+
+    private static long mix(long h){
+        h*=0x9E3779B97F4A7C15L;
+        return h^(h>>>32);
+    }
+}
@@ -0,0 +1,34 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The original Gson encoding, kept so a rollout of {@link BinaryCacheCodec} can be reverted.
+ */
+public class JsonCacheCodec implements CacheCodec {
+
+    private final Gson gson=new Gson();
+
+    @Override
+    public byte[] encode(Object value){
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Type type){
+        if(!isJson(bytes)) return null;
+        try{
+            return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), type);
+        }catch (JsonParseException e){
+            return null;
+        }
+    }
+
+    static boolean isJson(byte[] bytes){
+        return bytes!=null && bytes.length>0 && (bytes[0]=='{' || bytes[0]=='[');
+    }
+}
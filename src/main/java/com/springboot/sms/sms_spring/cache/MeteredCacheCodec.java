@@ -0,0 +1,39 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+
+import java.lang.reflect.Type;
+
+/**
+ * Records encode/decode time and payload size of another codec.
+ */
+public class MeteredCacheCodec implements CacheCodec {
+
+    private final CacheCodec delegate;
+    private final String name;
+    private final CacheMetrics cacheMetrics;
+
+    public MeteredCacheCodec(CacheCodec delegate, String name, CacheMetrics cacheMetrics){
+        this.delegate=delegate;
+        this.name=name;
+        this.cacheMetrics=cacheMetrics;
+    }
+
+    @Override
+    public byte[] encode(Object value){
+        long start=System.nanoTime();
+        byte[] bytes=delegate.encode(value);
+        cacheMetrics.serialization(name, "encode", System.nanoTime()-start, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Type type){
+        //a miss has nothing to decode
+        if(bytes==null) return null;
+        long start=System.nanoTime();
+        T value=delegate.decode(bytes, type);
+        cacheMetrics.serialization(name, "decode", System.nanoTime()-start, bytes.length);
+        return value;
+    }
+}
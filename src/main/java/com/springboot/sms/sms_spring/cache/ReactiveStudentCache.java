@@ -0,0 +1,136 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@link StudentCache} for the reactive profile, same keys, same value bytes and the
+ * same {@link CircuitBreaker}. A failed, slow or rejected call completes empty, which callers treat as a miss.
+ * Lettuce pipelines commands issued together on its shared connection, so the multi-command writes are sent
+ * without waiting for each reply.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveStudentCache {
+
+    @Autowired
+    private ReactiveRedisTemplate<String, byte[]> redisTemplate;
+
+    @Autowired
+    private CircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Value("${sms.redis.timeout-millis:200}")
+    private long timeoutMillis=200;
+
+    //reactive nodes keep no near cache, they only tell the servlet nodes to drop theirs
+    private final String nodeId="reactive-"+UUID.randomUUID();
+
+    public Mono<byte[]> get(String key){
+        return execute("get", ()->redisTemplate.opsForValue().get(key));
+    }
+
+    /**
+     * Reads several keys in one MGET. The result has one entry per key, null for misses.
+     */
+    public Mono<List<byte[]>> mget(List<String> keys){
+        List<byte[]> misses=new ArrayList<>(Collections.nCopies(keys.size(), null));
+        if(keys.isEmpty()) return Mono.just(misses);
+        return execute("mget", ()->redisTemplate.opsForValue().multiGet(keys)).defaultIfEmpty(misses);
+    }
+
+    public Mono<Void> setex(String key, long ttlSeconds, byte[] value){
+        return execute("setex", ()->redisTemplate.opsForValue().set(key, value, Duration.ofSeconds(ttlSeconds))).then();
+    }
+
+    public Mono<Void> setexAll(Map<String, byte[]> entries, long ttlSeconds){
+        if(entries.isEmpty()) return Mono.empty();
+        return execute("setex-pipeline", ()->Mono.when(entries.entrySet().stream()
+                .map(e->redisTemplate.opsForValue().set(e.getKey(), e.getValue(), Duration.ofSeconds(ttlSeconds)))
+                .toList()).thenReturn(true)).then();
+    }
+
+    /**
+     * Stores fresh values and drops keys derived from them.
+     */
+    public Mono<Void> writeThrough(Map<String, byte[]> entries, long ttlSeconds, String... staleKeys){
+        return execute("setex+del", ()->Mono.when(
+                Mono.when(entries.entrySet().stream()
+                        .map(e->redisTemplate.opsForValue().set(e.getKey(), e.getValue(), Duration.ofSeconds(ttlSeconds)))
+                        .toList()),
+                staleKeys.length==0 ? Mono.empty() : redisTemplate.delete(staleKeys)).thenReturn(true)).then();
+    }
+
+    public Mono<byte[]> hget(String key, String field){
+        return execute("hget", ()->redisTemplate.<String, byte[]>opsForHash().get(key, field));
+    }
+
+    /**
+     * Sets one field of a hash and (re)arms the TTL of the whole hash.
+     */
+    public Mono<Void> hsetex(String key, String field, long ttlSeconds, byte[] value){
+        return execute("hset+expire", ()->Mono.when(
+                redisTemplate.<String, byte[]>opsForHash().put(key, field, value),
+                redisTemplate.expire(key, Duration.ofSeconds(ttlSeconds))).thenReturn(true)).then();
+    }
+
+    public Mono<Void> del(String... keys){
+        if(keys.length==0) return Mono.empty();
+        return execute("del", ()->redisTemplate.delete(keys)).then();
+    }
+
+    /**
+     * Tells the near caches of the servlet nodes to drop the given students, in the message format of
+     * {@link StudentNearCache}.
+     */
+    public Mono<Void> publishInvalidation(Collection<Integer> ids){
+        if(ids.isEmpty()) return Mono.empty();
+        String message=nodeId+":"+ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return execute("publish", ()->redisTemplate.convertAndSend(StudentNearCache.CHANNEL, message.getBytes(StandardCharsets.UTF_8))).then();
+    }
+
+    public Mono<Void> publishInvalidation(Integer... ids){
+        return publishInvalidation(Arrays.asList(ids));
+    }
+
+    private <T> Mono<T> execute(String command, Supplier<Mono<T>> operation){
+        return Mono.defer(()->{
+            if(!redisCircuitBreaker.allowRequest()){
+                cacheMetrics.redisCommand(command, "rejected", 0);
+                return Mono.empty();
+            }
+            long start=System.nanoTime();
+            return operation.get()
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .doOnSuccess(result->{
+                        long elapsed=System.nanoTime()-start;
+                        redisCircuitBreaker.recordSuccess(elapsed);
+                        cacheMetrics.redisCommand(command, "success", elapsed);
+                    })
+                    .onErrorResume(e->{
+                        redisCircuitBreaker.recordFailure();
+                        cacheMetrics.redisCommand(command, "error", System.nanoTime()-start);
+                        return Mono.empty();
+                    });
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.springboot.sms.sms_spring.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeats cache invalidations once the replicas have caught up, active with read replicas
+ * ({@code sms.datasource.routing.enabled=true}). Cache misses are loaded from a replica like any other read,
+ * so a miss right after a write may load the pre-write row from a replica that has not replayed it yet and put it
+ * back. Dropping the same keys again after {@code sms.datasource.read-your-writes-millis}, the lag the
+ * read-your-writes window already assumes, bounds how long such a value is served.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "sms.datasource.routing.enabled", havingValue = "true")
+public class ReplicaLagInvalidation {
+
+    private static final Logger log=LoggerFactory.getLogger(ReplicaLagInvalidation.class);
+
+    @Value("${sms.datasource.read-your-writes-millis:2000}")
+    private long lagMillis=2000;
+
+    private final ScheduledExecutorService executor=Executors.newSingleThreadScheduledExecutor(r->{
+        Thread thread=new Thread(r, "replica-lag-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void repeat(Runnable invalidation){
+        executor.schedule(()->{
+            try{
+                invalidation.run();
+            }catch (RuntimeException e){
+                log.warn("Repeated invalidation failed: {}", e.getMessage());
+            }
+        }, lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop(){
+        executor.shutdownNow();
+    }
+}
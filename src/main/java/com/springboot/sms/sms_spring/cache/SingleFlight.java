@@ -0,0 +1,61 @@
+package com.springboot.sms.sms_spring.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller runs the loader, callers arriving
+ * while it is running wait for and share its result (or its exception) instead of loading again.
+ */
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, Flight> inFlight=new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader){
+        Flight mine=new Flight();
+        Flight existing=inFlight.putIfAbsent(key, mine);
+        if(existing!=null){
+            existing.waiters.incrementAndGet();
+            return (T) await(existing.result);
+        }
+        try{
+            T value=loader.get();
+            mine.result.complete(value);
+            return value;
+        }catch (RuntimeException | Error e){
+            mine.result.completeExceptionally(e);
+            throw e;
+        }finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public boolean isInFlight(String key){
+        return inFlight.containsKey(key);
+    }
+
+    //callers that joined the load of key now in flight and will share its result, 0 when none is running
+    public int waiters(String key){
+        Flight flight=inFlight.get(key);
+        return flight==null ? 0 : flight.waiters.get();
+    }
+
+    private static Object await(CompletableFuture<Object> future){
+        try{
+            return future.join();
+        }catch (CompletionException e){
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            if(e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result=new CompletableFuture<>();
+        private final AtomicInteger waiters=new AtomicInteger();
+    }
+}
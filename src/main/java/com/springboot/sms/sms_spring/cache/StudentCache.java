@@ -0,0 +1,172 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Thread-safe access to the Redis cache used by the student service.
+ * Every call borrows its own connection from the {@link JedisPool}, and every call is guarded
+ * by a {@link CircuitBreaker}: when Redis is slow or down the methods behave like a cache miss
+ * (reads return null, writes are dropped) so callers fall back to the database.
+ * Keys are strings, values are the raw bytes produced by a {@link CacheCodec}.
+ * Every round trip is timed in {@link CacheMetrics#redisCommand}. A call that cannot get a pooled connection within
+ * {@code sms.redis.pool.max-wait-millis} is also a miss, but does not count against the breaker.
+ */
+@Component
+@Profile("!reactive")
+public class StudentCache {
+
+    @Autowired
+    private JedisPool jedisPool;
+
+    @Autowired
+    private CircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    //only with read replicas configured
+    @Autowired(required = false)
+    private ReplicaLagInvalidation replicaLagInvalidation;
+
+    public byte[] get(String key){
+        return execute("get", jedis->jedis.get(SafeEncoder.encode(key)), null);
+    }
+
+    /**
+     * Reads a value together with its remaining TTL in one pipelined round trip, or null on a miss.
+     */
+    public CachedValue getWithTtl(String key){
+        return execute("get+pttl", jedis->{
+            Pipeline pipeline=jedis.pipelined();
+            byte[] rawKey=SafeEncoder.encode(key);
+            Response<byte[]> value=pipeline.get(rawKey);
+            Response<Long> ttl=pipeline.pttl(rawKey);
+            pipeline.sync();
+            return value.get()==null ? null : new CachedValue(value.get(), ttl.get());
+        }, null);
+    }
+
+    /**
+     * Reads several keys in one MGET. The result has one entry per key, null for misses.
+     */
+    public List<byte[]> mget(List<String> keys){
+        if(keys.isEmpty()) return Collections.emptyList();
+        List<byte[]> misses=new ArrayList<>(Collections.nCopies(keys.size(), null));
+        return execute("mget", jedis->jedis.mget(keys.stream().map(SafeEncoder::encode).toArray(byte[][]::new)), misses);
+    }
+
+    public void setex(String key, long ttlSeconds, byte[] value){
+        execute("setex", jedis->jedis.setex(SafeEncoder.encode(key), ttlSeconds, value), null);
+    }
+
+    /**
+     * Writes several entries with the same TTL in one pipelined round trip.
+     */
+    public void setexAll(Map<String, byte[]> entries, long ttlSeconds){
+        if(entries.isEmpty()) return;
+        execute("setex-pipeline", jedis->{
+            Pipeline pipeline=jedis.pipelined();
+            entries.forEach((key, value)->pipeline.setex(SafeEncoder.encode(key), ttlSeconds, value));
+            pipeline.sync();
+            return null;
+        }, null);
+    }
+
+    /**
+     * Stores fresh values and drops keys derived from them in one pipelined round trip.
+     * With read replicas all of these keys are dropped once more after the replica lag.
+     */
+    public void writeThrough(Map<String, byte[]> entries, long ttlSeconds, String... staleKeys){
+        execute("setex+del", jedis->{
+            Pipeline pipeline=jedis.pipelined();
+            if(staleKeys.length>0) pipeline.del(staleKeys);
+            entries.forEach((key, value)->pipeline.setex(SafeEncoder.encode(key), ttlSeconds, value));
+            pipeline.sync();
+            return null;
+        }, null);
+        if(replicaLagInvalidation!=null){
+            List<String> keys=new ArrayList<>(entries.keySet());
+            keys.addAll(List.of(staleKeys));
+            String[] written=keys.toArray(String[]::new);
+            replicaLagInvalidation.repeat(()->delNow(written));
+        }
+    }
+
+    public byte[] hget(String key, String field){
+        return execute("hget", jedis->jedis.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)), null);
+    }
+
+    /**
+     * Sets one field of a hash and (re)arms the TTL of the whole hash in one pipelined round trip.
+     */
+    public void hsetex(String key, String field, long ttlSeconds, byte[] value){
+        execute("hset+expire", jedis->{
+            byte[] rawKey=SafeEncoder.encode(key);
+            Pipeline pipeline=jedis.pipelined();
+            pipeline.hset(rawKey, SafeEncoder.encode(field), value);
+            pipeline.expire(rawKey, ttlSeconds);
+            pipeline.sync();
+            return null;
+        }, null);
+    }
+
+    public void publish(String channel, String message){
+        execute("publish", jedis->jedis.publish(channel, message), null);
+    }
+
+    //with read replicas the keys are dropped once more after the replica lag
+    public void del(String... keys){
+        if(keys.length==0) return;
+        delNow(keys);
+        if(replicaLagInvalidation!=null) replicaLagInvalidation.repeat(()->delNow(keys));
+    }
+
+    private void delNow(String... keys){
+        execute("del", jedis->jedis.del(keys), null);
+    }
+
+    private <T> T execute(String command, Function<Jedis, T> operation, T fallback){
+        if(!redisCircuitBreaker.allowRequest()){
+            cacheMetrics.redisCommand(command, "rejected", 0);
+            return fallback;
+        }
+        long start=System.nanoTime();
+        try(Jedis jedis=jedisPool.getResource()){
+            T result=operation.apply(jedis);
+            long elapsed=System.nanoTime()-start;
+            redisCircuitBreaker.recordSuccess(elapsed);
+            cacheMetrics.redisCommand(command, "success", elapsed);
+            return result;
+        }catch (JedisException e){
+            //timed out waiting for a pooled connection: local saturation (more callers than connections,
+            //e.g. on virtual threads), not a Redis failure
+            if(e.getCause() instanceof NoSuchElementException){
+                redisCircuitBreaker.abandon();
+                cacheMetrics.redisCommand(command, "exhausted", System.nanoTime()-start);
+                return fallback;
+            }
+            redisCircuitBreaker.recordFailure();
+            cacheMetrics.redisCommand(command, "error", System.nanoTime()-start);
+            return fallback;
+        }
+    }
+
+    public record CachedValue(byte[] value, long ttlMillis) {
+    }
+}
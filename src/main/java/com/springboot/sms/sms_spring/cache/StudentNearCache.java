@@ -0,0 +1,183 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springboot.sms.sms_spring.entity.Student;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * In-process L1 cache of {@link Student} objects sitting in front of the {@code students<id>} Redis keys.
+ * Caffeine's W-TinyLFU policy gives frequency based admission and eviction, bounded by an estimated byte size.
+ * Writes on any node publish the comma separated roll numbers on {@link #CHANNEL}; every other node drops its copy.
+ * If the subscription is lost the whole L1 is cleared, since invalidations may have been missed.
+ * With read replicas every invalidation is repeated on all nodes after the replica lag, see {@link ReplicaLagInvalidation}.
+ */
+@Component
+@Profile("!reactive")
+public class StudentNearCache {
+
+    public static final String CHANNEL="students:invalidate";
+
+    private static final Logger log=LoggerFactory.getLogger(StudentNearCache.class);
+
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private JedisPool jedisPool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //only with read replicas configured
+    @Autowired(required = false)
+    private ReplicaLagInvalidation replicaLagInvalidation;
+
+    @Value("${sms.near-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sms.near-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${sms.near-cache.expire-after-write-seconds:5}")
+    private long expireAfterWriteSeconds;
+
+    private final String nodeId=UUID.randomUUID().toString();
+    private final Subscriber subscriber=new Subscriber();
+    private Cache<Integer, Student> cache;
+    private Thread listener;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start(){
+        cache=Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Integer id, Student s)->estimateSize(s))
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "students.near");
+        if(!enabled) return;
+        running=true;
+        listener=new Thread(this::listen, "student-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop(){
+        running=false;
+        if(subscriber.isSubscribed()) subscriber.unsubscribe();
+        if(listener!=null) listener.interrupt();
+    }
+
+    public Student get(int id){
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+
+    public void put(Student student){
+        if(enabled) cache.put(student.getRollNo(), student);
+    }
+
+    /**
+     * Drops the entry locally and tells every other node to drop it too.
+     */
+    public void invalidate(int id){
+        cache.invalidate(id);
+        publishInvalidation(id);
+    }
+
+    /**
+     * Drops several entries locally and on every other node with a single message.
+     */
+    public void invalidateAll(Collection<Integer> ids){
+        if(ids.isEmpty()) return;
+        cache.invalidateAll(ids);
+        studentCache.publish(CHANNEL, nodeId+":"+ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        repeatLater(ids);
+    }
+
+    /**
+     * Tells every other node that {@code id} changed; the local entry is left as is.
+     */
+    public void publishInvalidation(int id){
+        studentCache.publish(CHANNEL, nodeId+":"+id);
+        repeatLater(List.of(id));
+    }
+
+    //a value loaded from a lagging replica meanwhile is dropped here and everywhere else, the fresh one is reloaded
+    private void repeatLater(Collection<Integer> ids){
+        if(replicaLagInvalidation==null) return;
+        List<Integer> copy=List.copyOf(ids);
+        replicaLagInvalidation.repeat(()->{
+            cache.invalidateAll(copy);
+            studentCache.publish(CHANNEL, nodeId+":"+copy.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        });
+    }
+
+    private void listen(){
+        long backoffMillis=100;
+        while(running){
+            try(Jedis jedis=jedisPool.getResource()){
+                backoffMillis=100;
+                jedis.subscribe(subscriber, CHANNEL);
+            }catch (JedisException e){
+                log.debug("Invalidation subscription lost: {}", e.getMessage());
+            }
+            //anything published while we were not listening is lost
+            cache.invalidateAll();
+            try{
+                Thread.sleep(backoffMillis);
+            }catch (InterruptedException e){
+                return;
+            }
+            backoffMillis=Math.min(backoffMillis*2, 5000);
+        }
+    }
+
+    private void onInvalidation(String message){
+        int separator=message.lastIndexOf(':');
+        if(separator<0 || message.startsWith(nodeId)) return;
+        try{
+            for(String id:message.substring(separator+1).split(",")){
+                cache.invalidate(Integer.parseInt(id));
+            }
+        }catch (NumberFormatException e){
+            log.warn("Ignoring malformed invalidation message {}", message);
+        }
+    }
+
+    static int estimateSize(Student student){
+        //object header and fields plus two strings of UTF-16 chars
+        int size=48;
+        if(student.getName()!=null) size+=40+2*student.getName().length();
+        if(student.getBranch()!=null) size+=40+2*student.getBranch().length();
+        return size;
+    }
+
+    private class Subscriber extends JedisPubSub {
+        @Override
+        public void onMessage(String channel, String message){
+            onInvalidation(message);
+        }
+    }
+}
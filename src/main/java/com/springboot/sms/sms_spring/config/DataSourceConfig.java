@@ -0,0 +1,88 @@
+package com.springboot.sms.sms_spring.config;
+
+import com.springboot.sms.sms_spring.datasource.ReadYourWritesInterceptor;
+import com.springboot.sms.sms_spring.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, switched on with {@code sms.datasource.routing.enabled=true}. The primary is the usual
+ * {@code spring.datasource.*} pool; each of {@code sms.datasource.replica-urls} gets a pool of its own with
+ * the same credentials and {@code spring.datasource.hikari.*} settings, sized by {@code sms.datasource.replica-pool-size}.
+ * Read-only transactions, which include every Spring Data finder, are served by the replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sms.datasource.routing.enabled", havingValue = "true")
+public class DataSourceConfig implements DisposableBean {
+
+    @Value("${sms.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${sms.datasource.replica-pool-size:20}")
+    private int replicaPoolSize;
+
+    @Value("${sms.datasource.replica-validation-timeout-seconds:1}")
+    private int validationTimeoutSeconds;
+
+    //how long a client's reads stay on the primary after it wrote, also when cache invalidations are repeated
+    @Value("${sms.datasource.read-your-writes-millis:2000}")
+    private long readYourWritesMillis;
+
+    private final List<HikariDataSource> pools=new ArrayList<>();
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment){
+        Binder binder=Binder.get(environment);
+        HikariDataSource primary=pool(properties, binder, "primary", properties.determineUrl());
+        Map<String, DataSource> replicas=new LinkedHashMap<>();
+        for(int i=0;i<replicaUrls.size();i++){
+            if(replicaUrls.get(i).isBlank()) continue;
+            HikariDataSource replica=pool(properties, binder, "replica-"+i, replicaUrls.get(i).trim());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        routing=new ReplicaRoutingDataSource(primary, replicas, validationTimeoutSeconds);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(){
+        return new ReadYourWritesInterceptor(readYourWritesMillis);
+    }
+
+    @Scheduled(initialDelayString = "${sms.datasource.replica-check-millis:5000}",
+            fixedDelayString = "${sms.datasource.replica-check-millis:5000}")
+    public void checkReplicas(){
+        if(routing!=null) routing.checkReplicas();
+    }
+
+    @Override
+    public void destroy(){
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Binder binder, String name, String url){
+        HikariDataSource pool=properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pools.add(pool);
+        return pool;
+    }
+}
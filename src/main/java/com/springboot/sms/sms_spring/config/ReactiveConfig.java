@@ -0,0 +1,92 @@
+package com.springboot.sms.sms_spring.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking clients of the reactive profile: an R2DBC connection pool to Postgres and a Lettuce
+ * connection to the same Redis the servlet nodes use. Lettuce multiplexes every command over one connection,
+ * so there is no Redis pool to size.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${sms.r2dbc.url:r2dbc:postgresql://localhost:5432/postgres}")
+    private String url;
+
+    @Value("${spring.datasource.username:postgres}")
+    private String username;
+
+    @Value("${spring.datasource.password:postgres}")
+    private String password;
+
+    @Value("${sms.r2dbc.pool.initial-size:4}")
+    private int initialSize;
+
+    @Value("${sms.r2dbc.pool.max-size:20}")
+    private int maxSize;
+
+    @Value("${sms.r2dbc.pool.max-acquire-millis:2000}")
+    private long maxAcquireMillis;
+
+    @Value("${sms.redis.host:localhost}")
+    private String redisHost;
+
+    @Value("${sms.redis.port:6379}")
+    private int redisPort;
+
+    @Value("${sms.redis.timeout-millis:200}")
+    private long redisTimeoutMillis;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(){
+        ConnectionFactory connectionFactory=ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory){
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public LettuceConnectionFactory reactiveRedisConnectionFactory(){
+        LettuceClientConfiguration clientConfig=LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(redisTimeoutMillis))
+                .build();
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort), clientConfig);
+    }
+
+    //string keys, values are the raw bytes of the CacheCodec, same as StudentCache writes them
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> reactiveRedisTemplate(LettuceConnectionFactory reactiveRedisConnectionFactory){
+        RedisSerializationContext<String, byte[]> context=RedisSerializationContext.<String, byte[]>newSerializationContext(RedisSerializer.string())
+                .value(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, context);
+    }
+}
@@ -1,12 +1,80 @@
 package com.springboot.sms.sms_spring.config;
 
-import lombok.Getter;
-import redis.clients.jedis.Jedis;
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.CircuitBreaker;
+import com.springboot.sms.sms_spring.cache.JsonCacheCodec;
+import com.springboot.sms.sms_spring.cache.MeteredCacheCodec;
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
 
+import java.time.Duration;
+
+@Configuration
 public class RedisConfig {
-    @Getter
-    private static Jedis jedis;
-    static {
-        jedis=new Jedis("localhost",6379);
+
+    @Value("${sms.redis.host:localhost}")
+    private String host;
+
+    @Value("${sms.redis.port:6379}")
+    private int port;
+
+    //socket timeout, a slow Redis call fails fast instead of holding the request thread
+    @Value("${sms.redis.timeout-millis:200}")
+    private int timeoutMillis;
+
+    @Value("${sms.redis.pool.max-total:32}")
+    private int maxTotal;
+
+    @Value("${sms.redis.pool.max-idle:16}")
+    private int maxIdle;
+
+    @Value("${sms.redis.pool.min-idle:2}")
+    private int minIdle;
+
+    @Value("${sms.redis.pool.max-wait-millis:50}")
+    private long maxWaitMillis;
+
+    @Value("${sms.redis.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${sms.redis.breaker.open-millis:5000}")
+    private long openMillis;
+
+    @Value("${sms.redis.breaker.slow-call-millis:100}")
+    private long slowCallMillis;
+
+    //binary or json; binary also reads values written as json, so it can be switched on while old keys are live
+    @Value("${sms.cache.codec:binary}")
+    private String codec;
+
+    //servlet nodes only, the reactive profile talks to Redis through Lettuce (ReactiveConfig)
+    @Bean(destroyMethod = "close")
+    @Profile("!reactive")
+    public JedisPool jedisPool(){
+        JedisPoolConfig poolConfig=new JedisPoolConfig();
+        poolConfig.setMaxTotal(maxTotal);
+        poolConfig.setMaxIdle(maxIdle);
+        poolConfig.setMinIdle(minIdle);
+        poolConfig.setMaxWait(Duration.ofMillis(maxWaitMillis));
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setTestWhileIdle(true);
+        return new JedisPool(poolConfig, host, port, timeoutMillis);
+    }
+
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(){
+        return new CircuitBreaker(failureThreshold, Duration.ofMillis(openMillis), Duration.ofMillis(slowCallMillis));
+    }
+
+    @Bean
+    public CacheCodec cacheCodec(CacheMetrics cacheMetrics){
+        boolean json="json".equalsIgnoreCase(codec);
+        return new MeteredCacheCodec(json ? new JsonCacheCodec() : new BinaryCacheCodec(), json ? "json" : "binary", cacheMetrics);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.springboot.sms.sms_spring.config;
+
+import com.springboot.sms.sms_spring.admission.AdmissionInterceptor;
+import com.springboot.sms.sms_spring.datasource.ReadYourWritesInterceptor;
+import com.springboot.sms.sms_spring.metrics.EndpointInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@Profile("!reactive")
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private EndpointInterceptor endpointInterceptor;
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    //only with read replicas configured
+    @Autowired(required = false)
+    private ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(endpointInterceptor);
+        //only the student API is shed, health probes and metrics are always answered
+        registry.addInterceptor(admissionInterceptor).addPathPatterns("/students", "/students/**");
+        if(readYourWritesInterceptor!=null) registry.addInterceptor(readYourWritesInterceptor);
+    }
+}
@@ -0,0 +1,115 @@
+package com.springboot.sms.sms_spring.controller;
+
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.service.ReactiveStudentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+//the StudentController endpoints on WebFlux, active with the reactive profile
+@RestController
+@Profile("reactive")
+public class ReactiveStudentController {
+
+    @Autowired
+    private ReactiveStudentService studentService;
+
+
+    //get all students, one keyset page of them when after/limit are given, or the listed ids
+    @GetMapping("/students")
+    public Mono<? extends ResponseEntity<?>> getAllStudents(@RequestParam(required = false) Integer after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(required = false) List<Integer> ids){
+        if(ids!=null){
+            return studentService.getStudents(ids);
+        }
+        if(after==null && limit==null){
+            return studentService.getAllStudent();
+        }
+        return studentService.getStudentPage(after==null ? 0 : after, limit==null ? 100 : limit);
+    }
+
+    //stream all students as newline delimited JSON, with backpressure from the client down to the database cursor
+    @GetMapping(value = "/students", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Student> streamAllStudents(){
+        return studentService.streamAllStudents();
+    }
+
+    //students in a percentage range, optionally in one branch, best first
+    @GetMapping("/students/filter")
+    public Mono<ResponseEntity<StudentSlice>> findStudents(@RequestParam(required = false) String branch,
+                                                           @RequestParam(defaultValue = "0") float minPercentage,
+                                                           @RequestParam(defaultValue = "100") float maxPercentage,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "50") int size){
+        return studentService.findStudents(branch, minPercentage, maxPercentage, page, size);
+    }
+
+    //top n students by percentage, optionally in one branch
+    @GetMapping("/students/top")
+    public Mono<ResponseEntity<List<Student>>> getTopStudents(@RequestParam(required = false) String branch,
+                                                              @RequestParam(defaultValue = "10") int n){
+        return studentService.getTopStudents(branch, n);
+    }
+
+    //per-branch count, mean, min, max and histogram, for every branch or just the given one
+    @GetMapping("/students/stats")
+    public Mono<ResponseEntity<?>> getStatistics(@RequestParam(required = false) String branch){
+        return studentService.getStatistics(branch);
+    }
+
+    //get student by id
+    @GetMapping("/students/{id}")
+    public Mono<ResponseEntity<?>> getStudent(@PathVariable int id){
+        return studentService.getStudent(id);
+    }
+
+    //create a students
+    @PostMapping("/students")
+    public Mono<ResponseEntity<Student>> createStudent(@RequestBody Student student){
+        return studentService.createStudent(student);
+    }
+
+    @PutMapping("/students/{id}")
+    public Mono<ResponseEntity<?>> updateStudent(@RequestBody Student student, @PathVariable int id){
+        return studentService.updateStudent(student, id);
+    }
+
+    //partial update, fields left out of the body are not changed
+    @PatchMapping("/students/{id}")
+    public Mono<ResponseEntity<?>> patchStudent(@RequestBody StudentPatch patch, @PathVariable int id){
+        return studentService.patchStudent(patch, id);
+    }
+
+    @DeleteMapping("/students/{id}")
+    public Mono<ResponseEntity<?>> deleteStudent(@PathVariable int id){
+        return studentService.deleteStudent(id);
+    }
+
+    //bulk variants, one result per array element in request order
+    @PostMapping("/students/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> createStudents(@RequestBody List<Student> students){
+        return studentService.createStudents(students);
+    }
+
+    @PutMapping("/students/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> updateStudents(@RequestBody List<Student> students){
+        return studentService.updateStudents(students);
+    }
+
+    @DeleteMapping("/students/batch")
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteStudents(@RequestBody List<Integer> ids){
+        return studentService.deleteStudents(ids);
+    }
+
+
+}
@@ -1,41 +1,148 @@
 package com.springboot.sms.sms_spring.controller;
 
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.ExportSnapshot;
+import com.springboot.sms.sms_spring.dto.PercentileStats;
+import com.springboot.sms.sms_spring.dto.StudentMatch;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentRank;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.dto.WriteStatus;
 import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.service.StudentExportService;
+import com.springboot.sms.sms_spring.service.StudentImportService;
 import com.springboot.sms.sms_spring.service.StudentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+
 @RestController
+@Profile("!reactive")
 public class StudentController {
 
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private StudentExportService studentExportService;
+
 
-    //get all students
+    //get all students, one keyset page of them when after/limit are given, or the listed ids;
+    //fields=rollNo,name narrows a listing to those properties
     @GetMapping("/students")
-    public ResponseEntity<List<Student>> getAllStudents(){
-        return studentService.getAllStudent();
+    public ResponseEntity<?> getAllStudents(@RequestParam(required = false) Integer after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) List<Integer> ids,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        if(ids!=null){
+            return studentService.getStudents(ids);
+        }
+        if(fields!=null){
+            return studentService.getStudentFields(fields, after, limit);
+        }
+        if(after==null && limit==null){
+            return studentService.getAllStudent(ifNoneMatch);
+        }
+        return studentService.getStudentPage(after==null ? 0 : after, limit==null ? 100 : limit);
+    }
+
+    //stream all students as newline delimited JSON
+    @GetMapping(value = "/students", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents(){
+        StreamingResponseBody body=out->studentService.streamAllStudents(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    //students in a percentage range, optionally in one branch, best first
+    @GetMapping("/students/filter")
+    public ResponseEntity<StudentSlice> findStudents(@RequestParam(required = false) String branch,
+                                                     @RequestParam(defaultValue = "0") float minPercentage,
+                                                     @RequestParam(defaultValue = "100") float maxPercentage,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "50") int size){
+        return studentService.findStudents(branch, minPercentage, maxPercentage, page, size);
+    }
+
+    //top n students by percentage, optionally in one branch
+    @GetMapping("/students/top")
+    public ResponseEntity<List<Student>> getTopStudents(@RequestParam(required = false) String branch,
+                                                        @RequestParam(defaultValue = "10") int n){
+        return studentService.getTopStudents(branch, n);
+    }
+
+    //students whose name starts with, or nearly starts with, the query
+    @GetMapping("/students/search")
+    public ResponseEntity<List<StudentMatch>> searchStudents(@RequestParam String q,
+                                                             @RequestParam(defaultValue = "10") int limit){
+        return studentService.searchStudents(q, limit);
+    }
+
+    //per-branch count, mean, min, max and histogram, for every branch or just the given one
+    @GetMapping("/students/stats")
+    public ResponseEntity<?> getStatistics(@RequestParam(required = false) String branch){
+        return studentService.getStatistics(branch);
     }
 
-    //get student by id
+    //percentiles of the percentages, for one branch or everyone, from the columnar snapshot
+    @GetMapping("/students/analytics/percentiles")
+    public ResponseEntity<PercentileStats> getPercentiles(@RequestParam(required = false) String branch,
+                                                          @RequestParam(defaultValue = "50,90,99") List<Double> p){
+        return studentService.getPercentiles(branch, p);
+    }
+
+    //rank of the student by percentage, within its branch or among all students
+    @GetMapping("/students/analytics/rank/{id}")
+    public ResponseEntity<StudentRank> getRank(@PathVariable int id, @RequestParam(defaultValue = "branch") String scope){
+        return studentService.getRank(id, scope);
+    }
+
+    //get student by id, 304 when If-None-Match names its current ETag
     @GetMapping("/students/{id}")
-    public ResponseEntity<?> getStudent(@PathVariable int id){
-        return studentService.getStudent(id);
+    public ResponseEntity<?> getStudent(@PathVariable int id,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return studentService.getStudent(id, ifNoneMatch);
     }
 
-    //create a students
+    //create a students; with the write-behind on the answer is 202 and the student is written shortly after
     @PostMapping("/students")
     public ResponseEntity<Student> createStudent(@RequestBody Student student){
         return studentService.createStudent(student);
     }
 
+    //progress of a create accepted by the write-behind, by the roll number it was given
+    @GetMapping("/students/writes/{id}")
+    public ResponseEntity<WriteStatus> getWriteStatus(@PathVariable int id){
+        return studentService.getWriteStatus(id);
+    }
+
+    //with If-Match the update only applies to the version named by the ETag, 412 otherwise
     @PutMapping("/students/{id}")
-    public ResponseEntity<?> updateStudent(@RequestBody Student student, @PathVariable int id){
-        return studentService.updateStudent(student, id);
+    public ResponseEntity<?> updateStudent(@RequestBody Student student, @PathVariable int id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        return studentService.updateStudent(student, id, ifMatch);
+    }
+
+    //partial update, fields left out of the body are not changed
+    @PatchMapping("/students/{id}")
+    public ResponseEntity<?> patchStudent(@RequestBody StudentPatch patch, @PathVariable int id){
+        return studentService.patchStudent(patch, id);
     }
 
     @DeleteMapping("/students/{id}")
@@ -43,5 +150,56 @@ public class StudentController {
         return studentService.deleteStudent(id);
     }
 
+    //bulk variants, one result per array element in request order
+    @PostMapping("/students/batch")
+    public ResponseEntity<List<BatchItemResult>> createStudents(@RequestBody List<Student> students){
+        return studentService.createStudents(students);
+    }
+
+    @PutMapping("/students/batch")
+    public ResponseEntity<List<BatchItemResult>> updateStudents(@RequestBody List<Student> students){
+        return studentService.updateStudents(students);
+    }
+
+    @DeleteMapping("/students/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteStudents(@RequestBody List<Integer> ids){
+        return studentService.deleteStudents(ids);
+    }
+
+    //bulk load of a CSV file with a header row, or of NDJSON, answered with one progress line per chunk
+    @PostMapping(value = "/students/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream body){
+        return studentImportService.importStudents(body, contentType);
+    }
+
+    //start a csv or binary snapshot of the whole table, poll its status until it is READY
+    @PostMapping("/students/exports")
+    public ResponseEntity<ExportSnapshot> createExport(@RequestParam(defaultValue = "csv") String format){
+        return studentExportService.createExport(format);
+    }
+
+    @GetMapping("/students/exports")
+    public ResponseEntity<List<ExportSnapshot>> getExports(){
+        return studentExportService.getExports();
+    }
+
+    @GetMapping("/students/exports/{id}")
+    public ResponseEntity<ExportSnapshot> getExport(@PathVariable String id){
+        return studentExportService.getExport(id);
+    }
+
+    //the snapshot file, Range requests are supported
+    @GetMapping("/students/exports/{id}/file")
+    public void downloadExport(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        studentExportService.download(id, request, response);
+    }
+
+    //a batch update that lost a race with a concurrent write of one of its students
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> conflict(){
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
 
 }
@@ -0,0 +1,25 @@
+package com.springboot.sms.sms_spring.datasource;
+
+/**
+ * Pins the current thread to the primary database, so a client reading right after its own write does not
+ * see a replica that has not replayed it yet. Set by {@link ReadYourWritesInterceptor} for the request being served.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED=new ThreadLocal<>();
+
+    private ReadYourWrites(){
+    }
+
+    public static boolean isPinned(){
+        return PINNED.get()!=null;
+    }
+
+    public static void pin(){
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void clear(){
+        PINNED.remove();
+    }
+}
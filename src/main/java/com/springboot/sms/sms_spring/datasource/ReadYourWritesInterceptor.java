@@ -0,0 +1,66 @@
+package com.springboot.sms.sms_spring.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Keeps a client on the primary for a while after it writes. Every request that may write is served from the
+ * primary and hands the client a cookie holding the end of the window; requests carrying an unexpired cookie
+ * are pinned too. The window lives with the client, so it holds whichever node serves the next request.
+ * Work handed to another thread, such as a streamed listing, is not pinned.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String COOKIE="sms-primary-until";
+
+    private final long windowMillis;
+
+    public ReadYourWritesInterceptor(long windowMillis){
+        this.windowMillis=windowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        long now=System.currentTimeMillis();
+        if(!isRead(request.getMethod())){
+            ReadYourWrites.pin();
+            Cookie cookie=new Cookie(COOKIE, Long.toString(now+windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMillis+999)/1000));
+            response.addCookie(cookie);
+        }else if(pinnedUntil(request)>now){
+            ReadYourWrites.pin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler){
+        ReadYourWrites.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex){
+        ReadYourWrites.clear();
+    }
+
+    private static boolean isRead(String method){
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static long pinnedUntil(HttpServletRequest request){
+        if(request.getCookies()==null) return 0;
+        for(Cookie cookie:request.getCookies()){
+            if(!COOKIE.equals(cookie.getName())) continue;
+            try{
+                return Long.parseLong(cookie.getValue());
+            }catch (NumberFormatException e){
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.springboot.sms.sms_spring.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to the primary.
+ * Replicas are taken in turn, skipping the ones the last {@link #checkReplicas() health check} or a failed
+ * connection attempt marked down; with none up, or while {@link ReadYourWrites} pins the thread, reads go to
+ * the primary too.
+ * <p>
+ * The decision is made when a connection is requested, which happens before a transaction manager has
+ * published the read-only flag. Wrap this in a {@code LazyConnectionDataSourceProxy} so the physical connection
+ * is only fetched once the transaction is set up.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log=LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas=new ArrayList<>();
+    private final AtomicInteger next=new AtomicInteger();
+    private final int validationTimeoutSeconds;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, int validationTimeoutSeconds){
+        this.primary=primary;
+        replicas.forEach((name, dataSource)->this.replicas.add(new Replica(name, dataSource)));
+        this.validationTimeoutSeconds=validationTimeoutSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica=replicaForCurrentTransaction();
+        if(replica!=null){
+            try{
+                return replica.dataSource.getConnection();
+            }catch (SQLException e){
+                markDown(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica=replicaForCurrentTransaction();
+        if(replica!=null){
+            try{
+                return replica.dataSource.getConnection(username, password);
+            }catch (SQLException e){
+                markDown(replica, e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    //null when the connection has to come from the primary
+    private Replica replicaForCurrentTransaction(){
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinned()) return null;
+        int size=replicas.size();
+        int start=Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for(int i=0;i<size;i++){
+            Replica replica=replicas.get((start+i)%size);
+            if(replica.up) return replica;
+        }
+        return null;
+    }
+
+    /**
+     * Validates one connection of every replica and marks it up or down accordingly.
+     */
+    public void checkReplicas(){
+        for(Replica replica:replicas){
+            try(Connection connection=replica.dataSource.getConnection()){
+                boolean valid=connection.isValid(validationTimeoutSeconds);
+                if(valid && !replica.up) log.info("Replica {} is back up", replica.name);
+                if(!valid) markDown(replica, null);
+                else replica.up=true;
+            }catch (SQLException e){
+                markDown(replica, e);
+            }
+        }
+    }
+
+    public List<String> getReplicasUp(){
+        return replicas.stream().filter(r->r.up).map(r->r.name).toList();
+    }
+
+    private static void markDown(Replica replica, SQLException cause){
+        if(replica.up) log.warn("Replica {} is down, its reads go elsewhere until it validates again", replica.name, cause);
+        replica.up=false;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean up=true;
+
+        private Replica(String name, DataSource dataSource){
+            this.name=name;
+            this.dataSource=dataSource;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.springboot.sms.sms_spring.dto;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one element of a batch request. {@code index} is the position in the request array,
+ * {@code status} the HTTP status the same operation would have returned on its own.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private Integer rollNo;
+    private int status;
+    private String error;
+    private Student student;
+
+    public static BatchItemResult ok(int index, int status, Student student){
+        return new BatchItemResult(index, student.getRollNo(), status, null, student);
+    }
+
+    public static BatchItemResult failed(int index, Integer rollNo, int status, String error){
+        return new BatchItemResult(index, rollNo, status, error, null);
+    }
+}
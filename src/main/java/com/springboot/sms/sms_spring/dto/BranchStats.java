@@ -0,0 +1,21 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistics of one branch. {@code histogram[i]} counts percentages in {@code [i*10, i*10+10)},
+ * the last bucket also holds 100.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchStats {
+    private String branch;
+    private long count;
+    private Double mean;
+    private Float min;
+    private Float max;
+    private long[] histogram;
+}
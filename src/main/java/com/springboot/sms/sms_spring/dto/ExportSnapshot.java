@@ -0,0 +1,29 @@
+package com.springboot.sms.sms_spring.dto;
+
+import com.springboot.sms.sms_spring.export.ExportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One export of the student table. {@code rows} and {@code bytes} are set once it is READY,
+ * {@code error} when it FAILED. The file itself is served from /students/exports/{id}/file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportSnapshot {
+
+    public enum Status { RUNNING, READY, FAILED }
+
+    private String id;
+    private ExportFormat format;
+    private Status status;
+    private Instant createdAt;
+    private Instant completedAt;
+    private Long rows;
+    private Long bytes;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of the POST /students/import response. Counters are running totals, {@code errors} only holds
+ * the records rejected since the previous line. The last line has {@code done} set, and {@code failure}
+ * when the database refused a chunk; rows imported before that stay imported.
+ */
+@Data
+@NoArgsConstructor
+public class ImportProgress {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<ImportRowError> errors=new ArrayList<>();
+    private String failure;
+    private boolean done;
+}
@@ -0,0 +1,16 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A record of an import file that was not loaded, {@code line} is the line of the file it starts on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    private long line;
+    private String error;
+}
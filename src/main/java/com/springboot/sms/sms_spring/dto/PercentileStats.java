@@ -0,0 +1,19 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Percentiles of the percentages of one branch (null for all students). {@code values[i]} is the
+ * {@code percentiles[i]}-th percentile, NaN when there are no students.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PercentileStats {
+    private String branch;
+    private long count;
+    private double[] percentiles;
+    private float[] values;
+}
@@ -0,0 +1,19 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StudentPage} narrowed to the requested fields, each student is a map of property name to value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentFieldsPage {
+    private List<Map<String, Object>> students;
+    private Integer nextAfter;
+}
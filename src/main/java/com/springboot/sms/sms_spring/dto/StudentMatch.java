@@ -0,0 +1,18 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One hit of a name search. {@code distance} is 0 when every query word starts a word of the name,
+ * otherwise the number of edits between the query and the closest word start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentMatch {
+    private int rollNo;
+    private String name;
+    private int distance;
+}
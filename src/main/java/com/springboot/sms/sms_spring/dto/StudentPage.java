@@ -0,0 +1,20 @@
+package com.springboot.sms.sms_spring.dto;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset paginated listing. Pass {@code nextAfter} as {@code after} to fetch the next page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPage {
+    private List<Student> students;
+    private Integer nextAfter;
+}
@@ -0,0 +1,22 @@
+package com.springboot.sms.sms_spring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Standing of one student by percentage. {@code rank} is 1 plus the number of students with a higher percentage
+ * among {@code total}, within the student's branch or among everyone; {@code percentile} is the share of the others
+ * that are not ahead of it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentRank {
+    private int rollNo;
+    private String branch;
+    private float percentage;
+    private long rank;
+    private long total;
+    private double percentile;
+}
@@ -0,0 +1,21 @@
+package com.springboot.sms.sms_spring.dto;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a filtered query. No total count is computed, {@code hasNext} tells whether another page exists.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSlice {
+    private List<Student> students;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,23 @@
+package com.springboot.sms.sms_spring.dto;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a create accepted by the write-behind. The tracking id is the roll number reserved for the student,
+ * once {@code state} is WRITTEN it can be read under that id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteStatus {
+
+    public enum State { PENDING, WRITTEN, FAILED }
+
+    private int rollNo;
+    private State state;
+    private String error;
+    private Student student;
+}
@@ -10,10 +10,16 @@ import lombok.*;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "student")
+@Table(name = "student", indexes = {
+        @Index(name = "idx_student_branch_percentage", columnList = "branch, percentage"),
+        //in the best-first order of the filter and top-N listings, so they read a range without sorting it
+        @Index(name = "idx_student_percentage", columnList = "percentage desc, roll_no")
+})
 public class Student {
+    //pooled sequence so inserts can be JDBC batched, ids are handed out 50 at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     private int rollNo;
 
     @Column(name = "student_name")
@@ -24,4 +30,13 @@ public class Student {
 
     @Column
     private String branch;
+
+    //bumped by every update, the entity tag of the student; the default fills the column for existing rows
+    @Version
+    @Column(columnDefinition = "integer default 0 not null")
+    private int version;
+
+    public Student(int rollNo, String name, float percentage, String branch){
+        this(rollNo, name, percentage, branch, 0);
+    }
 }
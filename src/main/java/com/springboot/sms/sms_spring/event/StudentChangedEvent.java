@@ -0,0 +1,23 @@
+package com.springboot.sms.sms_spring.event;
+
+import com.springboot.sms.sms_spring.entity.Student;
+
+/**
+ * Published by the student service for every row it creates, updates or deletes.
+ * {@code before} is null for a create, {@code after} is null for a delete.
+ * Listeners use it to keep derived in-memory state current without re-reading the table.
+ */
+public record StudentChangedEvent(Student before, Student after) {
+
+    public static StudentChangedEvent created(Student student){
+        return new StudentChangedEvent(null, student);
+    }
+
+    public static StudentChangedEvent updated(Student before, Student after){
+        return new StudentChangedEvent(before, after);
+    }
+
+    public static StudentChangedEvent deleted(Student student){
+        return new StudentChangedEvent(student, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.springboot.sms.sms_spring.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary export, numbers big-endian, with the string and varint forms of the binary cache codec.
+ * <pre>
+ * file    := magic:"SMSX" version:u8 row*
+ * row     := rollNo:i32 percentage:f32 branchRef:varint [branch:string] name:string
+ * string  := varint(byteLength+1) utf8   (0 encodes null)
+ * </pre>
+ * {@code branchRef} is 0 for a null branch and n for the n-th distinct branch of the file. A branch is
+ * spelled out only on the row that introduces it, that is when {@code branchRef} is one more than the
+ * number of branches seen so far. Rows run to the end of the file.
+ */
+public class BinaryExportWriter extends ExportWriter {
+
+    static final byte[] MAGIC={'S', 'M', 'S', 'X'};
+    static final byte VERSION=1;
+
+    private final Map<String, Integer> branches=new HashMap<>();
+
+    public BinaryExportWriter(FileChannel channel) throws IOException {
+        super(channel);
+        reserve(MAGIC.length+1);
+        buffer.put(MAGIC).put(VERSION);
+    }
+
+    @Override
+    protected void writeRow(int rollNo, String name, float percentage, String branch) throws IOException {
+        byte[] nameBytes=name==null ? null : name.getBytes(StandardCharsets.UTF_8);
+        Integer ref=branch==null ? Integer.valueOf(0) : branches.get(branch);
+        byte[] branchBytes=ref==null ? branch.getBytes(StandardCharsets.UTF_8) : null;
+        reserve(8+5+(branchBytes==null ? 0 : branchBytes.length+5)+(nameBytes==null ? 0 : nameBytes.length)+5);
+        buffer.putInt(rollNo);
+        buffer.putFloat(percentage);
+        if(ref==null){
+            ref=branches.size()+1;
+            branches.put(branch, ref);
+            putVarint(ref);
+            putString(branchBytes);
+        }else{
+            putVarint(ref);
+        }
+        putString(nameBytes);
+    }
+
+    private void putString(byte[] bytes){
+        if(bytes==null){
+            putVarint(0);
+            return;
+        }
+        putVarint(bytes.length+1);
+        buffer.put(bytes);
+    }
+
+    private void putVarint(int v){
+        while((v&~0x7F)!=0){
+            buffer.put((byte) ((v&0x7F)|0x80));
+            v>>>=7;
+        }
+        buffer.put((byte) v);
+    }
+}
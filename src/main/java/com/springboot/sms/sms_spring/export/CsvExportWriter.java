@@ -0,0 +1,54 @@
+package com.springboot.sms.sms_spring.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV with a header row, in the layout POST /students/import reads back.
+ * Names are always quoted; a branch is quoted when present and left empty when null.
+ */
+public class CsvExportWriter extends ExportWriter {
+
+    private static final byte[] HEADER="roll_no,name,percentage,branch\n".getBytes(StandardCharsets.US_ASCII);
+
+    public CsvExportWriter(FileChannel channel) throws IOException {
+        super(channel);
+        reserve(HEADER.length);
+        buffer.put(HEADER);
+    }
+
+    @Override
+    protected void writeRow(int rollNo, String name, float percentage, String branch) throws IOException {
+        byte[] nameBytes=utf8(name);
+        byte[] branchBytes=utf8(branch);
+        //worst case every byte of the strings is a doubled quote
+        reserve(32+2*(nameBytes.length+branchBytes.length)+4);
+        putAscii(Integer.toString(rollNo));
+        buffer.put((byte) ',');
+        putQuoted(nameBytes);
+        buffer.put((byte) ',');
+        putAscii(Float.toString(percentage));
+        buffer.put((byte) ',');
+        if(branch!=null) putQuoted(branchBytes);
+        buffer.put((byte) '\n');
+    }
+
+    private void putAscii(String s){
+        for(int i=0;i<s.length();i++) buffer.put((byte) s.charAt(i));
+    }
+
+    //a quote byte never occurs inside a multi-byte UTF-8 sequence, so doubling it byte-wise is safe
+    private void putQuoted(byte[] bytes){
+        buffer.put((byte) '"');
+        for(byte b:bytes){
+            if(b=='"') buffer.put(b);
+            buffer.put(b);
+        }
+        buffer.put((byte) '"');
+    }
+
+    private static byte[] utf8(String s){
+        return s==null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.springboot.sms.sms_spring.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv"),
+    BINARY("bin", "application/octet-stream");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType){
+        this.extension=extension;
+        this.contentType=contentType;
+    }
+
+    public String getExtension(){
+        return extension;
+    }
+
+    public String getContentType(){
+        return contentType;
+    }
+
+    public ExportWriter open(FileChannel channel) throws IOException {
+        return this==CSV ? new CsvExportWriter(channel) : new BinaryExportWriter(channel);
+    }
+
+    //csv or binary, case-insensitive, null for anything else
+    public static ExportFormat parse(String name){
+        if(name==null) return null;
+        return switch (name.toLowerCase(Locale.ROOT)){
+            case "csv" -> CSV;
+            case "binary", "bin" -> BINARY;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.springboot.sms.sms_spring.export;
+
+import com.springboot.sms.sms_spring.repository.StudentRowHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Encodes student rows into a direct buffer that is drained into a file channel whenever it fills up,
+ * so rows reach the file without being copied through a heap array.
+ */
+public abstract class ExportWriter implements StudentRowHandler, Closeable {
+
+    private static final int BUFFER_BYTES=64*1024;
+
+    protected final ByteBuffer buffer=ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final FileChannel channel;
+    private long rows;
+
+    protected ExportWriter(FileChannel channel){
+        this.channel=channel;
+    }
+
+    @Override
+    public void row(int rollNo, String name, float percentage, String branch) throws IOException {
+        writeRow(rollNo, name, percentage, branch);
+        rows++;
+    }
+
+    protected abstract void writeRow(int rollNo, String name, float percentage, String branch) throws IOException;
+
+    public long getRows(){
+        return rows;
+    }
+
+    //makes room for the next bytes values, drains the buffer first if they would not fit
+    protected final void reserve(int bytes) throws IOException {
+        if(buffer.remaining()<bytes) drain();
+        if(buffer.remaining()<bytes) throw new IOException("row larger than the "+BUFFER_BYTES+" byte buffer");
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    //writes what is still buffered and forces it to disk, the channel itself is closed by its owner
+    @Override
+    public void close() throws IOException {
+        drain();
+        channel.force(true);
+    }
+}
@@ -0,0 +1,139 @@
+package com.springboot.sms.sms_spring.importer;
+
+import com.springboot.sms.sms_spring.entity.Student;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV: comma separated, fields optionally double quoted, quotes inside a quoted field doubled,
+ * quoted fields may span lines. The header row names the columns in any order, {@code name}
+ * (or {@code student_name}) is required, {@code percentage} and {@code branch} are optional and
+ * other columns are ignored. Blank lines are skipped.
+ */
+public class CsvImportRowReader implements ImportRowReader {
+
+    //longer fields are rejected instead of growing the buffer with the input
+    static final int MAX_FIELD_CHARS=4096;
+
+    private final Reader in;
+    private final int nameColumn;
+    private final int percentageColumn;
+    private final int branchColumn;
+    private final List<String> fields=new ArrayList<>();
+    private final StringBuilder field=new StringBuilder();
+    private String recordError;
+    private long line=1;
+    private long recordLine;
+    private boolean eof;
+
+    public CsvImportRowReader(Reader in) throws IOException {
+        this.in=in;
+        if(!readRecord()){
+            throw new IllegalArgumentException("missing header row");
+        }
+        if(recordError!=null){
+            throw new IllegalArgumentException("header row: "+recordError);
+        }
+        int name=-1, percentage=-1, branch=-1;
+        for(int i=0;i<fields.size();i++){
+            switch(fields.get(i).trim().toLowerCase(Locale.ROOT)){
+                case "name", "student_name" -> name=i;
+                case "percentage" -> percentage=i;
+                case "branch" -> branch=i;
+                default -> { }
+            }
+        }
+        if(name<0){
+            throw new IllegalArgumentException("header row has no name column");
+        }
+        nameColumn=name;
+        percentageColumn=percentage;
+        branchColumn=branch;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        do{
+            if(!readRecord()) return null;
+        }while(recordError==null && fields.size()==1 && fields.get(0).isEmpty());
+        if(recordError!=null){
+            return ImportRow.failed(recordLine, recordError);
+        }
+        float percentage=0;
+        String percentageText=column(percentageColumn);
+        if(percentageText!=null && !percentageText.isBlank()){
+            try{
+                percentage=Float.parseFloat(percentageText.trim());
+            }catch (NumberFormatException e){
+                return ImportRow.failed(recordLine, "percentage is not a number: "+percentageText);
+            }
+        }
+        String branch=column(branchColumn);
+        Student student=new Student(0, column(nameColumn), percentage, branch==null || branch.isEmpty() ? null : branch);
+        return ImportRow.of(recordLine, student);
+    }
+
+    private String column(int index){
+        return index<0 || index>=fields.size() ? null : fields.get(index);
+    }
+
+    //parses the next record into fields, false at end of input
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        recordError=null;
+        recordLine=line;
+        if(eof) return false;
+        int c=in.read();
+        if(c==-1){
+            eof=true;
+            return false;
+        }
+        boolean quoted=false;
+        while(true){
+            if(quoted){
+                if(c==-1){
+                    eof=true;
+                    recordError="unterminated quoted field";
+                    fields.add(field.toString());
+                    return true;
+                }
+                if(c=='"'){
+                    c=in.read();
+                    if(c!='"'){
+                        quoted=false;
+                        continue;
+                    }
+                }else if(c=='\n'){
+                    line++;
+                }
+                append(c);
+            }else if(c==','){
+                fields.add(field.toString());
+                field.setLength(0);
+            }else if(c=='\n' || c==-1){
+                if(c=='\n') line++;
+                else eof=true;
+                fields.add(field.toString());
+                return true;
+            }else if(c=='"' && field.isEmpty()){
+                quoted=true;
+            }else if(c!='\r'){
+                append(c);
+            }
+            c=in.read();
+        }
+    }
+
+    private void append(int c){
+        if(field.length()<MAX_FIELD_CHARS){
+            field.append((char) c);
+        }else if(recordError==null){
+            recordError="field longer than "+MAX_FIELD_CHARS+" characters";
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.springboot.sms.sms_spring.importer;
+
+import com.springboot.sms.sms_spring.entity.Student;
+
+/**
+ * One record of an import file. {@code line} is the 1-based line the record starts on.
+ * Exactly one of {@code student} and {@code error} is set.
+ */
+public record ImportRow(long line, Student student, String error) {
+
+    public static ImportRow of(long line, Student student){
+        return new ImportRow(line, student, null);
+    }
+
+    public static ImportRow failed(long line, String error){
+        return new ImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,33 @@
+package com.springboot.sms.sms_spring.importer;
+
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls the records of an import file one at a time, so only the current record is held in memory.
+ */
+public interface ImportRowReader {
+
+    int BUFFER_CHARS=64*1024;
+
+    //next record, null once the input is exhausted
+    ImportRow next() throws IOException;
+
+    /**
+     * Reader for an NDJSON body, or for a CSV body otherwise. A CSV header is read right away,
+     * an unusable one is rejected with an IllegalArgumentException.
+     */
+    static ImportRowReader open(InputStream in, MediaType contentType) throws IOException {
+        Charset charset=contentType.getCharset()==null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        BufferedReader reader=new BufferedReader(new InputStreamReader(in, charset), BUFFER_CHARS);
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? new NdjsonImportRowReader(reader)
+                : new CsvImportRowReader(reader);
+    }
+}
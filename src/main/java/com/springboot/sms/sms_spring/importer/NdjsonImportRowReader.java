@@ -0,0 +1,38 @@
+package com.springboot.sms.sms_spring.importer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.springboot.sms.sms_spring.entity.Student;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * One student JSON object per line, the format GET /students streams out. Blank lines are skipped.
+ */
+public class NdjsonImportRowReader implements ImportRowReader {
+
+    private final BufferedReader in;
+    private final Gson gson=new Gson();
+    private long line;
+
+    public NdjsonImportRowReader(BufferedReader in){
+        this.in=in;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        do{
+            text=in.readLine();
+            if(text==null) return null;
+            line++;
+        }while(text.isBlank());
+        try{
+            Student student=gson.fromJson(text, Student.class);
+            return student==null ? ImportRow.failed(line, "not a JSON object") : ImportRow.of(line, student);
+        }catch (JsonParseException | IllegalStateException e){
+            return ImportRow.failed(line, "malformed JSON: "+e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.springboot.sms.sms_spring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the Redis cache layer, all tagged with the {@link EndpointContext#current() endpoint} being served.
+ * <ul>
+ *     <li>{@code sms.cache.requests} hits and misses per key family ({@code students:all}, {@code students} for
+ *     the {@code students<id>} keys, {@code students:pages}, ...)</li>
+ *     <li>{@code sms.redis.commands} latency per command and outcome (success, error, rejected by the breaker)</li>
+ *     <li>{@code sms.cache.serialization} encode/decode time and {@code sms.cache.payload} value sizes per codec</li>
+ * </ul>
+ * Percentile histograms are switched on per meter with {@code management.metrics.distribution.percentiles-histogram.*}.
+ */
+@Component
+public class CacheMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public void hit(String family){
+        lookup(family, "hit");
+    }
+
+    public void miss(String family){
+        lookup(family, "miss");
+    }
+
+    public void redisCommand(String command, String outcome, long nanos){
+        Timer.builder("sms.redis.commands")
+                .description("Redis round trips made by the student cache")
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .tag("endpoint", EndpointContext.current())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void serialization(String codec, String operation, long nanos, int bytes){
+        String endpoint=EndpointContext.current();
+        Timer.builder("sms.cache.serialization")
+                .description("Time spent turning cached values into bytes and back")
+                .tag("codec", codec)
+                .tag("operation", operation)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("sms.cache.payload")
+                .description("Size of cached values")
+                .baseUnit("bytes")
+                .tag("codec", codec)
+                .tag("operation", operation)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private void lookup(String family, String result){
+        Counter.builder("sms.cache.requests")
+                .description("Redis cache lookups")
+                .tag("family", family)
+                .tag("result", result)
+                .tag("endpoint", EndpointContext.current())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,29 @@
+package com.springboot.sms.sms_spring.metrics;
+
+/**
+ * The {@code StudentController} method serving the current request thread, used as the {@code endpoint} tag
+ * on cache, Redis and repository metrics. Work done outside a request (listeners, scheduled jobs, streamed
+ * responses written on an async thread) is tagged {@link #NONE}.
+ */
+public final class EndpointContext {
+
+    public static final String NONE="none";
+
+    private static final ThreadLocal<String> CURRENT=new ThreadLocal<>();
+
+    private EndpointContext(){
+    }
+
+    public static String current(){
+        String endpoint=CURRENT.get();
+        return endpoint==null ? NONE : endpoint;
+    }
+
+    static void set(String endpoint){
+        CURRENT.set(endpoint);
+    }
+
+    static void clear(){
+        CURRENT.remove();
+    }
+}
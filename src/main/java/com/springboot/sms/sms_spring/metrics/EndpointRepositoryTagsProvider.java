@@ -0,0 +1,20 @@
+package com.springboot.sms.sms_spring.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the endpoint tag to Spring Boot's {@code spring.data.repository.invocations} timer,
+ * which already times every {@code StudentRepository} call per method.
+ */
+@Component
+public class EndpointRepositoryTagsProvider extends DefaultRepositoryTagsProvider {
+
+    @Override
+    public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation){
+        return Tags.of(super.repositoryTags(invocation)).and("endpoint", EndpointContext.current());
+    }
+}
@@ -0,0 +1,77 @@
+package com.springboot.sms.sms_spring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier (blocking inside {@code synchronized} or a native
+ * frame) for longer than a threshold. Pinned time is lost concurrency: the carrier cannot run other requests.
+ * Events come from the JDK's {@code jdk.VirtualThreadPinned} JFR event, are counted in
+ * {@code sms.virtual-threads.pinned} by the first application frame (or the top frame outside it) and logged
+ * with their stack trace.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+
+    private static final String PINNED_EVENT="jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE="com.springboot.sms";
+
+    private static final Logger log=LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sms.virtual-threads.pinned-threshold-millis:20}")
+    private long thresholdMillis;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    void start(){
+        stream=new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop(){
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event){
+        String frame=frame(event);
+        Counter.builder("sms.virtual-threads.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .tag("frame", frame)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), frame, event.getStackTrace());
+    }
+
+    private static String frame(RecordedEvent event){
+        if(event.getStackTrace()==null || event.getStackTrace().getFrames().isEmpty()) return "unknown";
+        RecordedFrame top=event.getStackTrace().getFrames().get(0);
+        for(RecordedFrame frame:event.getStackTrace().getFrames()){
+            if(frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)){
+                top=frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName()+"."+top.getMethod().getName();
+    }
+}
@@ -0,0 +1,10 @@
+package com.springboot.sms.sms_spring.repository;
+
+/**
+ * Number of students of one branch sharing one percentage.
+ */
+public interface PercentageCount {
+    String getBranch();
+    float getPercentage();
+    long getCount();
+}
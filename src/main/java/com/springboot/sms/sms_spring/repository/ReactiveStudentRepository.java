@@ -0,0 +1,210 @@
+package com.springboot.sms.sms_spring.repository;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Student queries of the reactive profile over R2DBC. Reads mirror the derived queries of
+ * {@link StudentRepository}; the single statement writes run the same native SQL.
+ * New roll numbers come from {@code student_seq} like the JPA inserts: each nextval value lies in the
+ * block Hibernate's pooled optimizer would have reserved with it, so ids never collide with servlet nodes.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveStudentRepository {
+
+    private static final String COLUMNS="roll_no, student_name, percentage, branch, version";
+    //rows pulled from the server per round trip while streaming
+    private static final int FETCH_SIZE=500;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private TransactionalOperator transactionalOperator;
+
+    @PostConstruct
+    void init(){
+        //kept out of the context, a second TransactionManager bean would displace the JPA one
+        transactionalOperator=TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    /**
+     * Every student by roll number, fetched from a cursor as fast as the subscriber requests them.
+     */
+    public Flux<Student> findAll(){
+        return databaseClient.sql("SELECT "+COLUMNS+" FROM student ORDER BY roll_no")
+                .filter(statement->statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    public Mono<Student> findById(int id){
+        return databaseClient.sql("SELECT "+COLUMNS+" FROM student WHERE roll_no = :id")
+                .bind("id", id)
+                .map(ReactiveStudentRepository::toStudent)
+                .one();
+    }
+
+    public Flux<Student> findAllById(Collection<Integer> ids){
+        if(ids.isEmpty()) return Flux.empty();
+        return databaseClient.sql("SELECT "+COLUMNS+" FROM student WHERE roll_no IN (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    //keyset page, uses the primary key index instead of OFFSET scans
+    public Flux<Student> findByRollNoGreaterThan(int rollNo, int limit){
+        return databaseClient.sql("SELECT "+COLUMNS+" FROM student WHERE roll_no > :rollNo ORDER BY roll_no LIMIT :limit")
+                .bind("rollNo", rollNo)
+                .bind("limit", limit)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    /**
+     * Students in a percentage range, optionally in one branch, best first; served by the (branch, percentage) index.
+     */
+    public Flux<Student> findByPercentageBetween(String branch, float min, float max, long offset, int limit){
+        DatabaseClient.GenericExecuteSpec spec=databaseClient.sql("SELECT "+COLUMNS+" FROM student " +
+                        "WHERE (CAST(:branch AS text) IS NULL OR branch = :branch) AND percentage BETWEEN :min AND :max " +
+                        "ORDER BY percentage DESC, roll_no LIMIT :limit OFFSET :offset")
+                .bind("min", min)
+                .bind("max", max)
+                .bind("limit", limit)
+                .bind("offset", offset);
+        return bindNullable(spec, "branch", branch, String.class).map(ReactiveStudentRepository::toStudent).all();
+    }
+
+    public Flux<Student> findTop(String branch, int limit){
+        DatabaseClient.GenericExecuteSpec spec=databaseClient.sql("SELECT "+COLUMNS+" FROM student " +
+                        "WHERE CAST(:branch AS text) IS NULL OR branch = :branch ORDER BY percentage DESC, roll_no LIMIT :limit")
+                .bind("limit", limit);
+        return bindNullable(spec, "branch", branch, String.class).map(ReactiveStudentRepository::toStudent).all();
+    }
+
+    //input of the per-branch statistics, one row per distinct (branch, percentage)
+    public Flux<PercentageCount> countByBranchAndPercentage(){
+        return databaseClient.sql("SELECT branch, percentage, count(*) AS count FROM student " +
+                        "WHERE branch IS NOT NULL GROUP BY branch, percentage")
+                .map(row->(PercentageCount) new PercentageRow(row.get("branch", String.class),
+                        row.get("percentage", Float.class), row.get("count", Long.class)))
+                .all();
+    }
+
+    public Mono<Student> insert(Student student){
+        return insertAll(List.of(student)).next();
+    }
+
+    /**
+     * Inserts the students with one multi-row statement, the generated rows come back in input order.
+     */
+    public Flux<Student> insertAll(List<Student> students){
+        if(students.isEmpty()) return Flux.empty();
+        StringBuilder sql=new StringBuilder("INSERT INTO student ("+COLUMNS+") VALUES ");
+        for(int i=0;i<students.size();i++){
+            if(i>0) sql.append(", ");
+            sql.append("(nextval('student_seq'), :name").append(i).append(", :percentage").append(i).append(", :branch").append(i).append(", 0)");
+        }
+        DatabaseClient.GenericExecuteSpec spec=databaseClient.sql(sql.append(" RETURNING ").append(COLUMNS).toString());
+        for(int i=0;i<students.size();i++){
+            Student student=students.get(i);
+            spec=spec.bind("name"+i, student.getName()).bind("percentage"+i, student.getPercentage());
+            spec=bindNullable(spec, "branch"+i, student.getBranch(), String.class);
+        }
+        //nextval runs row by row in VALUES order, so roll number order is input order
+        return spec.map(ReactiveStudentRepository::toStudent).all().sort((a, b)->Integer.compare(a.getRollNo(), b.getRollNo()));
+    }
+
+    public Mono<UpdatedStudent> updateReturning(int id, String name, float percentage, String branch){
+        DatabaseClient.GenericExecuteSpec spec=databaseClient.sql(StudentRepository.UPDATE_RETURNING)
+                .bind("id", id)
+                .bind("percentage", percentage);
+        spec=bindNullable(spec, "name", name, String.class);
+        spec=bindNullable(spec, "branch", branch, String.class);
+        return spec.map(ReactiveStudentRepository::toUpdated).one();
+    }
+
+    public Mono<UpdatedStudent> patchReturning(int id, String name, Float percentage, String branch){
+        DatabaseClient.GenericExecuteSpec spec=databaseClient.sql(StudentRepository.PATCH_RETURNING).bind("id", id);
+        spec=bindNullable(spec, "name", name, String.class);
+        spec=bindNullable(spec, "percentage", percentage, Float.class);
+        spec=bindNullable(spec, "branch", branch, String.class);
+        return spec.map(ReactiveStudentRepository::toUpdated).one();
+    }
+
+    /**
+     * Applies several full updates in one transaction, missing students are skipped.
+     */
+    public Flux<UpdatedStudent> updateAllReturning(List<Student> students){
+        return Flux.fromIterable(students)
+                .concatMap(s->updateReturning(s.getRollNo(), s.getName(), s.getPercentage(), s.getBranch()))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Student> deleteReturning(int id){
+        return databaseClient.sql(StudentRepository.DELETE_RETURNING)
+                .bind("id", id)
+                .map(ReactiveStudentRepository::toStudent)
+                .one();
+    }
+
+    public Flux<Student> deleteAllByIdReturning(Collection<Integer> ids){
+        if(ids.isEmpty()) return Flux.empty();
+        return databaseClient.sql("DELETE FROM student WHERE roll_no IN (:ids) RETURNING "+COLUMNS)
+                .bind("ids", ids)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type){
+        return value==null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Student toStudent(Readable row){
+        return new Student(row.get("roll_no", Integer.class), row.get("student_name", String.class),
+                row.get("percentage", Float.class), row.get("branch", String.class), row.get("version", Integer.class));
+    }
+
+    private static UpdatedStudent toUpdated(Readable row){
+        return new UpdatedRow(row.get("rollNo", Integer.class), row.get("name", String.class),
+                row.get("percentage", Float.class), row.get("branch", String.class), row.get("version", Integer.class), row.get("previousName", String.class),
+                row.get("previousPercentage", Float.class), row.get("previousBranch", String.class));
+    }
+
+    @Value
+    static class UpdatedRow implements UpdatedStudent {
+        int rollNo;
+        String name;
+        float percentage;
+        String branch;
+        int version;
+        String previousName;
+        float previousPercentage;
+        String previousBranch;
+    }
+
+    @Value
+    static class PercentageRow implements PercentageCount {
+        String branch;
+        float percentage;
+        long count;
+    }
+}
@@ -0,0 +1,126 @@
+package com.springboot.sms.sms_spring.repository;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk inserts over the PostgreSQL COPY protocol, used by the import, and as batched INSERTs, used by the
+ * write-behind of single creates. Both skip the per-row statement round trips and the persistence context,
+ * each call loads and commits its rows as one unit.
+ */
+@Repository
+@Profile("!reactive")
+public class StudentCopyRepository {
+
+    private static final int COPY_BUFFER_CHARS=32*1024;
+    private static final String COPY="COPY student (roll_no, student_name, percentage, branch) FROM STDIN WITH (FORMAT csv)";
+    //reWriteBatchedInserts turns a batch of these into multi-row INSERTs
+    private static final String INSERT="INSERT INTO student (roll_no, student_name, percentage, branch) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (roll_no) DO NOTHING";
+
+    //the increment of student_seq, looked up with the nextvals instead of assuming the entity's allocationSize
+    private static final String NEXT_BLOCKS="SELECT nextval('student_seq') AS high, seqincrement AS increment, seqstart AS start " +
+            "FROM pg_sequence, generate_series(1, ?) WHERE seqrelid='student_seq'::regclass";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //last increment seen, only sizes the next batch of nextvals
+    private volatile int increment=50;
+
+    /**
+     * Reserves {@code count} roll numbers. Each nextval of {@code student_seq} stands for the block of
+     * ids up to it, the block Hibernate's pooled optimizer would have used, so they never collide with JPA inserts.
+     * The block size is the sequence's own increment, read along with every batch of nextvals, and no block reaches
+     * below the sequence's start value: the first value of a fresh sequence is a block of one id.
+     */
+    public int[] nextIds(int count){
+        int[] ids=new int[count];
+        int n=0;
+        while(n<count){
+            int blocks=(count-n+increment-1)/increment;
+            List<Map<String, Object>> rows=jdbcTemplate.queryForList(NEXT_BLOCKS, blocks);
+            for(Map<String, Object> row:rows){
+                long high=((Number) row.get("high")).longValue();
+                int step=Math.max(1, ((Number) row.get("increment")).intValue());
+                long start=((Number) row.get("start")).longValue();
+                increment=step;
+                for(long id=Math.max(start, high-step+1);id<=high && n<count;id++){
+                    ids[n++]=Math.toIntExact(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the students, roll numbers included, in one COPY. Either all of them are loaded or none.
+     */
+    public long copy(List<Student> students){
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection->{
+            CopyIn copyIn=connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY);
+            try{
+                StringBuilder rows=new StringBuilder(COPY_BUFFER_CHARS+1024);
+                for(Student student:students){
+                    appendRow(rows, student);
+                    if(rows.length()>=COPY_BUFFER_CHARS) write(copyIn, rows);
+                }
+                write(copyIn, rows);
+                return copyIn.endCopy();
+            }finally{
+                if(copyIn.isActive()) copyIn.cancelCopy();
+            }
+        });
+    }
+
+    /**
+     * Inserts the students, roll numbers included, as one JDBC batch in one transaction. Rows whose roll number
+     * already exists are skipped, so the same students can be inserted again after a crash without failing.
+     */
+    @Transactional
+    public void insert(List<Student> students){
+        jdbcTemplate.batchUpdate(INSERT, students, students.size(), (statement, student)->{
+            statement.setInt(1, student.getRollNo());
+            statement.setString(2, student.getName());
+            statement.setFloat(3, student.getPercentage());
+            statement.setString(4, student.getBranch());
+        });
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes=rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    //strings are always quoted, so only an unquoted empty branch reads back as NULL
+    private static void appendRow(StringBuilder rows, Student student){
+        rows.append(student.getRollNo()).append(',');
+        appendQuoted(rows, student.getName());
+        rows.append(',').append(student.getPercentage()).append(',');
+        if(student.getBranch()!=null) appendQuoted(rows, student.getBranch());
+        rows.append('\n');
+    }
+
+    private static void appendQuoted(StringBuilder rows, String value){
+        rows.append('"');
+        for(int i=0;i<value.length();i++){
+            char c=value.charAt(i);
+            if(c=='"') rows.append('"');
+            rows.append(c);
+        }
+        rows.append('"');
+    }
+}
@@ -0,0 +1,54 @@
+package com.springboot.sms.sms_spring.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Full table scans for the export. Rows come from a server-side cursor, so only one fetch of them
+ * is in memory at a time whatever the table size.
+ */
+@Repository
+@Profile("!reactive")
+public class StudentExportRepository {
+
+    //rows pulled from the server per round trip
+    private static final int FETCH_SIZE=5000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init(){
+        jdbcTemplate=new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Hands every student to the handler in roll number order. The transaction is what makes pgjdbc
+     * use a cursor, with autocommit on it would fetch the whole result first.
+     */
+    @Transactional(readOnly = true)
+    public void forEach(StudentRowHandler handler) throws IOException {
+        try{
+            jdbcTemplate.query("SELECT roll_no, student_name, percentage, branch FROM student ORDER BY roll_no", rs->{
+                try{
+                    handler.row(rs.getInt(1), rs.getString(2), rs.getFloat(3), rs.getString(4));
+                }catch (IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+    }
+}
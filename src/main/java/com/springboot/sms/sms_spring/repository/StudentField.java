@@ -0,0 +1,48 @@
+package com.springboot.sms.sms_spring.repository;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Columns a listing can be narrowed to with {@code fields=}, named as in the JSON of a student.
+ */
+public enum StudentField {
+    ROLL_NO("rollNo"),
+    NAME("name"),
+    PERCENTAGE("percentage"),
+    BRANCH("branch"),
+    VERSION("version");
+
+    private final String property;
+
+    StudentField(String property){
+        this.property=property;
+    }
+
+    public String property(){
+        return property;
+    }
+
+    /**
+     * Parses a comma separated list of property names. The roll number is always part of the result,
+     * it is the key of every row and the cursor of keyset pages.
+     *
+     * @throws IllegalArgumentException for a name that is not a student property
+     */
+    public static Set<StudentField> parse(String fields){
+        Set<StudentField> parsed=EnumSet.of(ROLL_NO);
+        for(String name:fields.split(",")){
+            String trimmed=name.trim();
+            if(trimmed.isEmpty()) continue;
+            parsed.add(of(trimmed));
+        }
+        return parsed;
+    }
+
+    private static StudentField of(String property){
+        for(StudentField field:values()){
+            if(field.property.equals(property)) return field;
+        }
+        throw new IllegalArgumentException("Unknown student field "+property);
+    }
+}
@@ -0,0 +1,18 @@
+package com.springboot.sms.sms_spring.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Listings that select only some columns of the student table, mixed into {@link StudentRepository}.
+ */
+public interface StudentProjectionRepository {
+
+    /**
+     * Students with a roll number above {@code after}, in roll number order, at most {@code limit} of them
+     * (all when null). Each row maps the property names of the requested fields to their values,
+     * in declaration order of {@link StudentField}; other columns are never read.
+     */
+    List<Map<String, Object>> findProjected(Set<StudentField> fields, int after, Integer limit);
+}
@@ -0,0 +1,60 @@
+package com.springboot.sms.sms_spring.repository;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tuple queries over the requested columns only. Rows are scalars, not entities, so nothing enters
+ * the persistence context and no dirty checking snapshot is kept for them.
+ */
+public class StudentProjectionRepositoryImpl implements StudentProjectionRepository {
+
+    private static final int FETCH_SIZE=500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findProjected(Set<StudentField> fields, int after, Integer limit){
+        CriteriaBuilder cb=entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query=cb.createTupleQuery();
+        Root<Student> student=query.from(Student.class);
+        List<Selection<?>> selections=new ArrayList<>(fields.size());
+        for(StudentField field:fields){
+            selections.add(student.get(field.property()).alias(field.property()));
+        }
+        query.multiselect(selections)
+                .where(cb.greaterThan(student.get("rollNo"), after))
+                .orderBy(cb.asc(student.get("rollNo")));
+        TypedQuery<Tuple> typed=entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if(limit!=null) typed.setMaxResults(limit);
+        List<Tuple> tuples=typed.getResultList();
+        List<Map<String, Object>> rows=new ArrayList<>(tuples.size());
+        for(Tuple tuple:tuples){
+            Map<String, Object> row=new LinkedHashMap<>(fields.size()*2);
+            for(StudentField field:fields){
+                row.put(field.property(), tuple.get(field.property()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
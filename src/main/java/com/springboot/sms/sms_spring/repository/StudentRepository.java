@@ -1,8 +1,89 @@
 package com.springboot.sms.sms_spring.repository;
 
 import com.springboot.sms.sms_spring.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface StudentRepository extends JpaRepository<Student,Integer> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+public interface StudentRepository extends JpaRepository<Student,Integer>, StudentProjectionRepository {
+
+    String RETURNING_UPDATED="RETURNING s.roll_no AS \"rollNo\", s.student_name AS \"name\", " +
+            "s.percentage AS \"percentage\", s.branch AS \"branch\", s.version AS \"version\", o.student_name AS \"previousName\", " +
+            "o.percentage AS \"previousPercentage\", o.branch AS \"previousBranch\"";
+
+    //native statements, also run as they are by the reactive repository
+    String UPDATE_RETURNING="UPDATE student s SET student_name = :name, percentage = :percentage, branch = :branch, version = s.version + 1 " +
+            "FROM (SELECT roll_no, student_name, percentage, branch FROM student WHERE roll_no = :id FOR UPDATE) o " +
+            "WHERE s.roll_no = o.roll_no " + RETURNING_UPDATED;
+
+    //If-Match: only applied while the row still has one of the given versions
+    String UPDATE_IF_VERSION_RETURNING="UPDATE student s SET student_name = :name, percentage = :percentage, branch = :branch, version = s.version + 1 " +
+            "FROM (SELECT roll_no, student_name, percentage, branch FROM student WHERE roll_no = :id FOR UPDATE) o " +
+            "WHERE s.roll_no = o.roll_no AND s.version IN (:versions) " + RETURNING_UPDATED;
+
+    String PATCH_RETURNING="UPDATE student s SET student_name = COALESCE(CAST(:name AS text), s.student_name), " +
+            "percentage = COALESCE(CAST(:percentage AS real), s.percentage), " +
+            "branch = COALESCE(CAST(:branch AS text), s.branch), version = s.version + 1 " +
+            "FROM (SELECT roll_no, student_name, percentage, branch FROM student WHERE roll_no = :id FOR UPDATE) o " +
+            "WHERE s.roll_no = o.roll_no " + RETURNING_UPDATED;
+
+    String DELETE_RETURNING="DELETE FROM student WHERE roll_no = :id RETURNING *";
+
+    //keyset page, uses the primary key index instead of OFFSET scans
+    List<Student> findByRollNoGreaterThanOrderByRollNoAsc(int rollNo, Limit limit);
+
+    //must be consumed inside a transaction, rows are pulled from a cursor fetchSize at a time
+    @Query("select s from Student s order by s.rollNo")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Student> streamAllByOrderByRollNo();
+
+    //served by the (branch, percentage) index
+    Slice<Student> findByBranchAndPercentageBetween(String branch, float min, float max, Pageable pageable);
+
+    //served by the (percentage desc, roll_no) index, which already has the best-first order
+    Slice<Student> findByPercentageBetween(float min, float max, Pageable pageable);
+
+    List<Student> findByBranchOrderByPercentageDescRollNoAsc(String branch, Limit limit);
+
+    List<Student> findAllByOrderByPercentageDescRollNoAsc(Limit limit);
+
+    //input of the per-branch statistics, one row per distinct (branch, percentage)
+    @Query("select s.branch as branch, s.percentage as percentage, count(s) as count from Student s " +
+            "where s.branch is not null group by s.branch, s.percentage")
+    List<PercentageCount> countByBranchAndPercentage();
+
+    //single round trip writes, the changed row comes back from the same statement
+    @Transactional
+    @Query(value = UPDATE_RETURNING, nativeQuery = true)
+    Optional<UpdatedStudent> updateReturning(@Param("id") int id, @Param("name") String name,
+                                             @Param("percentage") float percentage, @Param("branch") String branch);
+
+    @Transactional
+    @Query(value = UPDATE_IF_VERSION_RETURNING, nativeQuery = true)
+    Optional<UpdatedStudent> updateIfVersionReturning(@Param("id") int id, @Param("name") String name, @Param("percentage") float percentage,
+                                                      @Param("branch") String branch, @Param("versions") Collection<Integer> versions);
+
+    @Transactional
+    @Query(value = PATCH_RETURNING, nativeQuery = true)
+    Optional<UpdatedStudent> patchReturning(@Param("id") int id, @Param("name") String name,
+                                            @Param("percentage") Float percentage, @Param("branch") String branch);
+
+    @Transactional
+    @Query(value = DELETE_RETURNING, nativeQuery = true)
+    Optional<Student> deleteReturning(@Param("id") int id);
 }
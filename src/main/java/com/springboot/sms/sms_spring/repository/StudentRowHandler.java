@@ -0,0 +1,11 @@
+package com.springboot.sms.sms_spring.repository;
+
+import java.io.IOException;
+
+/**
+ * Receives the columns of one student row at a time, without a Student being built for it.
+ */
+@FunctionalInterface
+public interface StudentRowHandler {
+    void row(int rollNo, String name, float percentage, String branch) throws IOException;
+}
@@ -0,0 +1,26 @@
+package com.springboot.sms.sms_spring.repository;
+
+import com.springboot.sms.sms_spring.entity.Student;
+
+/**
+ * Row returned by the single statement updates: the new column values plus the values they replaced,
+ * so caches of both branches can be invalidated and derived state can apply the change as a delta.
+ */
+public interface UpdatedStudent {
+    int getRollNo();
+    String getName();
+    float getPercentage();
+    String getBranch();
+    int getVersion();
+    String getPreviousName();
+    float getPreviousPercentage();
+    String getPreviousBranch();
+
+    default Student toStudent(){
+        return new Student(getRollNo(), getName(), getPercentage(), getBranch(), getVersion());
+    }
+
+    default Student toPrevious(){
+        return new Student(getRollNo(), getPreviousName(), getPreviousPercentage(), getPreviousBranch(), getVersion()-1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.springboot.sms.sms_spring.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted roll numbers of the names containing one trigram, in a growable primitive array.
+ * New students get increasing roll numbers from the sequence, so adds are nearly always appends.
+ */
+final class Posting {
+
+    private int[] ids;
+    private int size;
+
+    Posting(){
+        this(new int[4], 0);
+    }
+
+    //takes ownership of a sorted array
+    Posting(int[] ids, int size){
+        this.ids=ids;
+        this.size=size;
+    }
+
+    synchronized void add(int id){
+        int at=size;
+        if(size>0 && id<=ids[size-1]){
+            int found=Arrays.binarySearch(ids, 0, size, id);
+            if(found>=0) return;
+            at=-found-1;
+        }
+        if(size==ids.length) ids=Arrays.copyOf(ids, Math.max(4, size+(size>>1)));
+        System.arraycopy(ids, at, ids, at+1, size-at);
+        ids[at]=id;
+        size++;
+    }
+
+    //true when nothing is left
+    synchronized boolean remove(int id){
+        int found=Arrays.binarySearch(ids, 0, size, id);
+        if(found>=0){
+            System.arraycopy(ids, found+1, ids, found, size-found-1);
+            size--;
+        }
+        return size==0;
+    }
+
+    synchronized boolean contains(int id){
+        return Arrays.binarySearch(ids, 0, size, id)>=0;
+    }
+
+    synchronized int size(){
+        return size;
+    }
+
+    synchronized int[] toArray(){
+        return Arrays.copyOf(ids, size);
+    }
+
+    //the first max roll numbers
+    synchronized int[] toArray(int max){
+        return Arrays.copyOf(ids, Math.min(size, max));
+    }
+}
@@ -0,0 +1,394 @@
+package com.springboot.sms.sms_spring.search;
+
+import com.springboot.sms.sms_spring.dto.StudentMatch;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory index of student names for typeahead search, so a lookup by partial name never reaches Postgres.
+ * Every word of a name is indexed by its trigrams, padded at the front so the first one or two letters of a word
+ * have trigrams of their own; each trigram maps to a {@link Posting} of roll numbers.
+ * <p>
+ * A query matches a name when every query word starts one of its words. A single word of three or more letters
+ * that matches too few names is also looked up fuzzily, keeping names where the start of one of their words is within
+ * one edit of it (two for words longer than five letters), a swap of two adjacent letters counting as one edit.
+ * Candidates come from two cheap sources: the word with two adjacent letters swapped or one letter dropped, looked
+ * up as exact prefixes, and names sharing enough of the word's inner trigrams. The padded trigrams are left out of
+ * the count, their postings hold every name with the same first letter; at most {@code FUZZY_CANDIDATES} names are
+ * checked per query, so a lookup costs the same on any table size.
+ * <p>
+ * Like {@link com.springboot.sms.sms_spring.stats.StudentStatistics} the index is built at startup, kept current from
+ * {@link StudentChangedEvent}s and rebuilt periodically to fold in other nodes' writes; writes committing during
+ * a rebuild may be missing until the next one.
+ */
+@Component
+@Profile("!reactive")
+public class StudentNameIndex {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentNameIndex.class);
+
+    //rows per parallel build task
+    private static final int BUILD_CHUNK=50_000;
+    private static final char PAD=0;
+    //names whose edit distance a fuzzy lookup computes at most
+    private static final int FUZZY_CANDIDATES=200;
+    //roll numbers of the smallest posting a prefix lookup of more than one trigram reads at most
+    private static final int PREFIX_CANDIDATES=10_000;
+
+    @Autowired
+    private StudentExportRepository studentExportRepository;
+
+    @Value("${sms.search.build-parallelism:4}")
+    private int parallelism=4;
+
+    private volatile Index index=new Index(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event){
+        Student before=event.before();
+        Student after=event.after();
+        if(before!=null && after!=null && Objects.equals(before.getName(), after.getName())) return;
+        Index current=index;
+        if(before!=null) current.remove(before.getRollNo());
+        if(after!=null) current.add(after.getRollNo(), after.getName());
+    }
+
+    /**
+     * Up to {@code limit} students whose name matches the query, prefix matches first.
+     */
+    public List<StudentMatch> search(String query, int limit){
+        String[] words=words(query);
+        if(words.length==0) return List.of();
+        Index current=index;
+        List<StudentMatch> matches=new ArrayList<>(Math.min(limit, 64));
+        long[] trigrams=lookupTrigrams(words);
+        //every name in the posting of a lone trigram matches, a one-letter query must not copy all of them
+        int[] candidates=current.intersect(trigrams, trigrams.length==1 ? limit : PREFIX_CANDIDATES);
+        for(int i=0;i<candidates.length && matches.size()<limit;i++){
+            String name=current.names.get(candidates[i]);
+            if(name!=null && startsWords(words(name), words)) matches.add(new StudentMatch(candidates[i], name, 0));
+        }
+        if(matches.size()<limit && words.length==1 && words[0].length()>=3){
+            current.fuzzy(words[0], matches, limit);
+        }
+        return matches;
+    }
+
+    public int size(){
+        return index.names.size();
+    }
+
+    /**
+     * Reads every name through the export cursor and indexes them in parallel chunks, then swaps the result in.
+     */
+    @Scheduled(initialDelayString = "${sms.search.rebuild-interval-millis:300000}",
+            fixedDelayString = "${sms.search.rebuild-interval-millis:300000}")
+    public void rebuild(){
+        long start=System.nanoTime();
+        List<int[]> idChunks=new ArrayList<>();
+        List<String[]> nameChunks=new ArrayList<>();
+        int[] filled={BUILD_CHUNK};
+        try{
+            studentExportRepository.forEach((rollNo, name, percentage, branch)->{
+                if(filled[0]==BUILD_CHUNK){
+                    idChunks.add(new int[BUILD_CHUNK]);
+                    nameChunks.add(new String[BUILD_CHUNK]);
+                    filled[0]=0;
+                }
+                idChunks.get(idChunks.size()-1)[filled[0]]=rollNo;
+                nameChunks.get(nameChunks.size()-1)[filled[0]++]=name;
+            });
+        }catch (IOException | RuntimeException e){
+            log.warn("Could not rebuild the name index: {}", e.getMessage());
+            return;
+        }
+        ExecutorService executor=Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try{
+            List<CompletableFuture<Map<Long, Posting>>> parts=new ArrayList<>();
+            for(int c=0;c<idChunks.size();c++){
+                int[] ids=idChunks.get(c);
+                String[] names=nameChunks.get(c);
+                int rows=c==idChunks.size()-1 ? filled[0] : BUILD_CHUNK;
+                parts.add(CompletableFuture.supplyAsync(()->postings(ids, names, rows), executor));
+            }
+            ConcurrentHashMap<Integer, String> names=new ConcurrentHashMap<>(idChunks.size()*BUILD_CHUNK);
+            for(int c=0;c<idChunks.size();c++){
+                int rows=c==idChunks.size()-1 ? filled[0] : BUILD_CHUNK;
+                for(int i=0;i<rows;i++){
+                    if(nameChunks.get(c)[i]!=null) names.put(idChunks.get(c)[i], nameChunks.get(c)[i]);
+                }
+            }
+            //chunks hold ascending roll numbers, so appending them in order keeps every posting sorted
+            ConcurrentHashMap<Long, Posting> postings=new ConcurrentHashMap<>();
+            for(CompletableFuture<Map<Long, Posting>> part:parts){
+                part.join().forEach((trigram, posting)->{
+                    Posting merged=postings.putIfAbsent(trigram, posting);
+                    if(merged!=null) for(int id:posting.toArray()) merged.add(id);
+                });
+            }
+            index=new Index(postings, names);
+            log.info("Name index of {} students built in {} ms", names.size(), (System.nanoTime()-start)/1_000_000);
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    private static Map<Long, Posting> postings(int[] ids, String[] names, int rows){
+        Map<Long, Posting> postings=new HashMap<>();
+        for(int i=0;i<rows;i++){
+            if(names[i]==null) continue;
+            for(long trigram:trigrams(names[i])) postings.computeIfAbsent(trigram, t->new Posting()).add(ids[i]);
+        }
+        return postings;
+    }
+
+    private static final class Index {
+        private final ConcurrentHashMap<Long, Posting> postings;
+        private final ConcurrentHashMap<Integer, String> names;
+
+        private Index(ConcurrentHashMap<Long, Posting> postings, ConcurrentHashMap<Integer, String> names){
+            this.postings=postings;
+            this.names=names;
+        }
+
+        void add(int rollNo, String name){
+            if(name==null) return;
+            names.put(rollNo, name);
+            //inside compute, a remove emptying the posting cannot drop it between the lookup and the add
+            for(long trigram:trigrams(name)){
+                postings.compute(trigram, (t, posting)->{
+                    posting=posting==null ? new Posting() : posting;
+                    posting.add(rollNo);
+                    return posting;
+                });
+            }
+        }
+
+        void remove(int rollNo){
+            String name=names.remove(rollNo);
+            if(name==null) return;
+            for(long trigram:trigrams(name)) postings.computeIfPresent(trigram, (t, posting)->posting.remove(rollNo) ? null : posting);
+        }
+
+        //roll numbers in every posting of the trigrams, ascending, out of the first max of the smallest posting
+        int[] intersect(long[] trigrams, int max){
+            Posting[] lists=new Posting[trigrams.length];
+            for(int i=0;i<trigrams.length;i++){
+                lists[i]=postings.get(trigrams[i]);
+                if(lists[i]==null) return new int[0];
+            }
+            Arrays.sort(lists, Comparator.comparingInt(Posting::size));
+            int[] ids=lists[0].toArray(max);
+            int n=ids.length;
+            for(int l=1;l<lists.length && n>0;l++){
+                int kept=0;
+                for(int i=0;i<n;i++){
+                    if(lists[l].contains(ids[i])) ids[kept++]=ids[i];
+                }
+                n=kept;
+            }
+            return Arrays.copyOf(ids, n);
+        }
+
+        //adds names within the edit budget of the word, closest first, until there are limit matches
+        void fuzzy(String word, List<StudentMatch> matches, int limit){
+            int maxEdits=word.length()<=5 ? 1 : 2;
+            Set<Integer> seen=new HashSet<>();
+            for(StudentMatch match:matches) seen.add(match.getRollNo());
+            List<StudentMatch> found=new ArrayList<>();
+            int budget=FUZZY_CANDIDATES;
+            //a swap or an extra letter in the query: some variant is an exact prefix
+            for(String variant:variants(word)){
+                if(budget==0) break;
+                for(int rollNo:intersect(lookupTrigrams(new String[]{variant}), budget)){
+                    if(budget==0) break;
+                    if(seen.add(rollNo)){
+                        budget--;
+                        check(rollNo, word, maxEdits, found);
+                    }
+                }
+            }
+            //any other edit: each edit spoils at most three trigrams, the rest must be shared
+            long[] inner=innerTrigrams(word);
+            Posting[] lists=new Posting[inner.length];
+            int n=0;
+            for(long trigram:inner){
+                Posting posting=postings.get(trigram);
+                if(posting!=null) lists[n++]=posting;
+            }
+            int needed=Math.max(1, inner.length-3*maxEdits);
+            Arrays.sort(lists, 0, n, Comparator.comparingInt(Posting::size));
+            //a name in needed of the lists is in one of the n-needed+1 smallest
+            for(int l=0;l<=n-needed && budget>0;l++){
+                for(int rollNo:lists[l].toArray(budget)){
+                    if(budget==0) break;
+                    if(!seen.add(rollNo)) continue;
+                    budget--;
+                    int shared=1;
+                    for(int k=0;k<n && shared<needed;k++){
+                        if(k!=l && lists[k].contains(rollNo)) shared++;
+                    }
+                    if(shared>=needed) check(rollNo, word, maxEdits, found);
+                }
+            }
+            found.sort(Comparator.comparingInt(StudentMatch::getDistance).thenComparingInt(StudentMatch::getRollNo));
+            for(int i=0;i<found.size() && matches.size()<limit;i++) matches.add(found.get(i));
+        }
+
+        private void check(int rollNo, String word, int maxEdits, List<StudentMatch> found){
+            String name=names.get(rollNo);
+            int distance=name==null ? Integer.MAX_VALUE : prefixDistance(words(name), word, maxEdits);
+            if(distance>0 && distance<=maxEdits) found.add(new StudentMatch(rollNo, name, distance));
+        }
+    }
+
+    //the word with two adjacent letters swapped or one letter dropped, three letters or longer
+    private static Set<String> variants(String word){
+        Set<String> variants=new LinkedHashSet<>();
+        for(int i=0;i+1<word.length();i++){
+            char[] swapped=word.toCharArray();
+            swapped[i]=word.charAt(i+1);
+            swapped[i+1]=word.charAt(i);
+            variants.add(new String(swapped));
+        }
+        if(word.length()>3){
+            for(int i=0;i<word.length();i++) variants.add(word.substring(0, i)+word.substring(i+1));
+        }
+        variants.remove(word);
+        return variants;
+    }
+
+    //distinct trigrams of the word without padding
+    private static long[] innerTrigrams(String word){
+        long[] trigrams=new long[Math.max(0, word.length()-2)];
+        for(int i=2;i<word.length();i++){
+            trigrams[i-2]=((long) word.charAt(i-2)<<32)|((long) word.charAt(i-1)<<16)|word.charAt(i);
+        }
+        return Arrays.stream(trigrams).sorted().distinct().toArray();
+    }
+
+    //lower-cased runs of letters and digits; called per candidate, so no regex
+    static String[] words(String text){
+        String lower=text.toLowerCase(Locale.ROOT);
+        List<String> words=new ArrayList<>(4);
+        int start=-1;
+        for(int i=0;i<=lower.length();i++){
+            boolean inWord=i<lower.length() && isWordChar(lower.charAt(i));
+            if(inWord && start<0) start=i;
+            else if(!inWord && start>=0){
+                words.add(lower.substring(start, i));
+                start=-1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    //\p{L} or \p{N}
+    private static boolean isWordChar(char c){
+        if(Character.isLetter(c)) return true;
+        int type=Character.getType(c);
+        return type==Character.DECIMAL_DIGIT_NUMBER || type==Character.LETTER_NUMBER || type==Character.OTHER_NUMBER;
+    }
+
+    //distinct trigrams of every word of a name, each word padded with two PADs at the front
+    static long[] trigrams(String name){
+        return prefixTrigrams(words(name));
+    }
+
+    //the trigrams a name must have for every word to start one of its words; (PAD,PAD,a) is implied by (PAD,a,b)
+    //and its posting holds every name with that first letter, so it is only used for one-letter words
+    private static long[] lookupTrigrams(String[] words){
+        return Arrays.stream(prefixTrigrams(words))
+                .filter(t->(t>>>16)!=0 || Arrays.stream(words).anyMatch(w->w.length()==1 && w.charAt(0)==(char) t))
+                .toArray();
+    }
+
+    private static long[] prefixTrigrams(String[] words){
+        int count=0;
+        for(String word:words) count+=word.length();
+        long[] trigrams=new long[count];
+        int n=0;
+        for(String word:words){
+            char a=PAD;
+            char b=PAD;
+            for(int i=0;i<word.length();i++){
+                char c=word.charAt(i);
+                trigrams[n++]=((long) a<<32)|((long) b<<16)|c;
+                a=b;
+                b=c;
+            }
+        }
+        return Arrays.stream(trigrams, 0, n).sorted().distinct().toArray();
+    }
+
+    private static boolean startsWords(String[] nameWords, String[] queryWords){
+        for(String query:queryWords){
+            boolean found=false;
+            for(String word:nameWords){
+                if(word.startsWith(query)){
+                    found=true;
+                    break;
+                }
+            }
+            if(!found) return false;
+        }
+        return true;
+    }
+
+    //fewest edits (swapping two adjacent letters is one) turning the query into the start of one of the words,
+    //MAX_VALUE when more than maxEdits
+    static int prefixDistance(String[] nameWords, String query, int maxEdits){
+        int best=Integer.MAX_VALUE;
+        int m=query.length();
+        int[] older=new int[m+1];
+        int[] previous=new int[m+1];
+        int[] current=new int[m+1];
+        for(String word:nameWords){
+            //rows over the word, so the last column of each row is the distance to that prefix of it
+            for(int i=0;i<=m;i++) previous[i]=i;
+            if(previous[m]<=maxEdits) best=Math.min(best, previous[m]);
+            for(int j=1;j<=word.length() && j<=m+maxEdits;j++){
+                current[0]=j;
+                for(int i=1;i<=m;i++){
+                    int substitute=previous[i-1]+(query.charAt(i-1)==word.charAt(j-1) ? 0 : 1);
+                    current[i]=Math.min(substitute, Math.min(previous[i], current[i-1])+1);
+                    if(i>1 && j>1 && query.charAt(i-1)==word.charAt(j-2) && query.charAt(i-2)==word.charAt(j-1)){
+                        current[i]=Math.min(current[i], older[i-2]+1);
+                    }
+                }
+                if(current[m]<=maxEdits) best=Math.min(best, current[m]);
+                int[] swap=older;
+                older=previous;
+                previous=current;
+                current=swap;
+            }
+        }
+        return best;
+    }
+}
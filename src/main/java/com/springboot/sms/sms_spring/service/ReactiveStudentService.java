@@ -0,0 +1,34 @@
+package com.springboot.sms.sms_spring.service;
+
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.entity.Student;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * {@link StudentService} for the reactive profile, same operations, statuses and bodies, nothing blocks.
+ * The full listing is a {@link Flux} pulled from the database at the pace of the client instead of a cached list.
+ */
+public interface ReactiveStudentService {
+    public Mono<ResponseEntity<Student>> createStudent(Student student);
+    public Mono<ResponseEntity<Flux<Student>>> getAllStudent();
+    public Mono<ResponseEntity<StudentPage>> getStudentPage(int after, int limit);
+    public Flux<Student> streamAllStudents();
+    public Mono<ResponseEntity<StudentSlice>> findStudents(String branch, float minPercentage, float maxPercentage, int page, int size);
+    public Mono<ResponseEntity<List<Student>>> getTopStudents(String branch, int n);
+    public Mono<ResponseEntity<?>> getStatistics(String branch);
+    public Mono<ResponseEntity<?>> getStudent(int id);
+    public Mono<ResponseEntity<List<Student>>> getStudents(List<Integer> ids);
+    public Mono<ResponseEntity<?>> updateStudent(Student student, int id);
+    public Mono<ResponseEntity<?>> patchStudent(StudentPatch patch, int id);
+    public Mono<ResponseEntity<?>> deleteStudent(int id);
+    public Mono<ResponseEntity<List<BatchItemResult>>> createStudents(List<Student> students);
+    public Mono<ResponseEntity<List<BatchItemResult>>> updateStudents(List<Student> students);
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteStudents(List<Integer> ids);
+}
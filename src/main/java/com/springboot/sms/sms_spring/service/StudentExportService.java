@@ -0,0 +1,16 @@
+package com.springboot.sms.sms_spring.service;
+
+import com.springboot.sms.sms_spring.dto.ExportSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface StudentExportService {
+    public ResponseEntity<ExportSnapshot> createExport(String format);
+    public ResponseEntity<List<ExportSnapshot>> getExports();
+    public ResponseEntity<ExportSnapshot> getExport(String id);
+    public void download(String id, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
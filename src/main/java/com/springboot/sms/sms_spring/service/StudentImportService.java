@@ -0,0 +1,11 @@
+package com.springboot.sms.sms_spring.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+public interface StudentImportService {
+    public ResponseEntity<StreamingResponseBody> importStudents(InputStream in, MediaType contentType);
+}
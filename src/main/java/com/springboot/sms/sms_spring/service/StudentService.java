@@ -1,16 +1,41 @@
 package com.springboot.sms.sms_spring.service;
 
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.PercentileStats;
+import com.springboot.sms.sms_spring.dto.StudentMatch;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentRank;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.dto.WriteStatus;
 import com.springboot.sms.sms_spring.entity.Student;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
 public interface StudentService {
     public ResponseEntity<Student> createStudent(Student student);
-    public ResponseEntity<List<Student>> getAllStudent();
-    public ResponseEntity<?> getStudent(int id);
-    public ResponseEntity<?> updateStudent(Student student, int id);
+    public ResponseEntity<WriteStatus> getWriteStatus(int id);
+    public ResponseEntity<List<Student>> getAllStudent(String ifNoneMatch);
+    public ResponseEntity<StudentPage> getStudentPage(int after, int limit);
+    public ResponseEntity<?> getStudentFields(String fields, Integer after, Integer limit);
+    public void streamAllStudents(OutputStream out) throws IOException;
+    public ResponseEntity<StudentSlice> findStudents(String branch, float minPercentage, float maxPercentage, int page, int size);
+    public ResponseEntity<List<Student>> getTopStudents(String branch, int n);
+    public ResponseEntity<List<StudentMatch>> searchStudents(String query, int limit);
+    public ResponseEntity<?> getStatistics(String branch);
+    public ResponseEntity<PercentileStats> getPercentiles(String branch, List<Double> percentiles);
+    public ResponseEntity<StudentRank> getRank(int id, String scope);
+    public ResponseEntity<?> getStudent(int id, String ifNoneMatch);
+    public ResponseEntity<List<Student>> getStudents(List<Integer> ids);
+    public ResponseEntity<?> updateStudent(Student student, int id, String ifMatch);
+    public ResponseEntity<?> patchStudent(StudentPatch patch, int id);
     public ResponseEntity<?> deleteStudent(int id);
+    public ResponseEntity<List<BatchItemResult>> createStudents(List<Student> students);
+    public ResponseEntity<List<BatchItemResult>> updateStudents(List<Student> students);
+    public ResponseEntity<List<BatchItemResult>> deleteStudents(List<Integer> ids);
 }
@@ -0,0 +1,323 @@
+package com.springboot.sms.sms_spring.service.impl;
+
+import com.google.gson.reflect.TypeToken;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.ETags;
+import com.springboot.sms.sms_spring.cache.ReactiveStudentCache;
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.BranchStats;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import com.springboot.sms.sms_spring.repository.ReactiveStudentRepository;
+import com.springboot.sms.sms_spring.repository.UpdatedStudent;
+import com.springboot.sms.sms_spring.service.ReactiveStudentService;
+import com.springboot.sms.sms_spring.stats.StudentStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("reactive")
+public class ReactiveStudentServiceImpl implements ReactiveStudentService {
+
+    private static final Type STUDENT_LIST_TYPE=new TypeToken<List<Student>>(){}.getType();
+    private static final int MAX_PAGE_SIZE=1000;
+    private static final int MAX_BATCH_SIZE=1000;
+
+    @Autowired
+    private ReactiveStudentRepository studentRepository;
+
+    @Autowired
+    private ReactiveStudentCache studentCache;
+
+    @Autowired
+    private CacheCodec cacheCodec;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${sms.cache.ttl-seconds:5}")
+    private long ttlSeconds=5;
+
+    //concurrent misses of the same key share one database load
+    private final Map<String, Mono<?>> inFlight=new ConcurrentHashMap<>();
+
+    //streamed straight from the database cursor, a cached copy would have to be materialized first
+    public Mono<ResponseEntity<Flux<Student>>> getAllStudent(){
+        return Mono.just(new ResponseEntity<>(studentRepository.findAll(), HttpStatus.FOUND));
+    }
+
+    public Flux<Student> streamAllStudents(){
+        return studentRepository.findAll();
+    }
+
+    public Mono<ResponseEntity<StudentPage>> getStudentPage(int after, int limit){
+        if(limit<1 || limit>MAX_PAGE_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        Mono<StudentPage> load=studentRepository.findByRollNoGreaterThan(after, limit).collectList().map(students->{
+            Integer nextAfter=students.size()<limit ? null : students.get(students.size()-1).getRollNo();
+            return new StudentPage(students, nextAfter);
+        });
+        return readThroughHash(CacheKeys.PAGES, after+":"+limit, StudentPage.class, load)
+                .map(page->new ResponseEntity<>(page, HttpStatus.OK));
+    }
+
+    public Mono<ResponseEntity<StudentSlice>> findStudents(String branch, float minPercentage, float maxPercentage, int page, int size){
+        if(page<0 || size<1 || size>MAX_PAGE_SIZE || minPercentage>maxPercentage){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        String field="filter:"+minPercentage+":"+maxPercentage+":"+page+":"+size;
+        //one row past the page tells whether there is a next one
+        Mono<StudentSlice> load=studentRepository.findByPercentageBetween(branch, minPercentage, maxPercentage, (long) page*size, size+1)
+                .collectList()
+                .map(students->new StudentSlice(students.size()>size ? students.subList(0, size) : students, page, size, students.size()>size));
+        return readThroughHash(CacheKeys.query(branch), field, StudentSlice.class, load)
+                .map(slice->new ResponseEntity<>(slice, HttpStatus.OK));
+    }
+
+    public Mono<ResponseEntity<List<Student>>> getTopStudents(String branch, int n){
+        if(n<1 || n>MAX_PAGE_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        return readThroughHash(CacheKeys.query(branch), "top:"+n, STUDENT_LIST_TYPE, studentRepository.findTop(branch, n).collectList())
+                .map(top->new ResponseEntity<>(top, HttpStatus.OK));
+    }
+
+    //the statistics are in memory, nothing to wait for
+    public Mono<ResponseEntity<?>> getStatistics(String branch){
+        if(branch==null){
+            return Mono.just(new ResponseEntity<>(studentStatistics.getAll(), HttpStatus.OK));
+        }
+        BranchStats stats=studentStatistics.get(branch);
+        return Mono.just(new ResponseEntity<>(stats, stats==null ? HttpStatus.NOT_FOUND : HttpStatus.OK));
+    }
+
+    public Mono<ResponseEntity<?>> getStudent(int id){
+        return readThrough(CacheKeys.student(id), CacheKeys.STUDENT_FAMILY, Student.class, studentRepository.findById(id))
+                .<ResponseEntity<?>>map(student->new ResponseEntity<>(student, HttpStatus.FOUND))
+                .defaultIfEmpty(new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Resolves several students in request order with one MGET, then one query for whatever Redis did not have.
+     * Loaded rows are written back to Redis. Unknown ids are left out of the result.
+     */
+    public Mono<ResponseEntity<List<Student>>> getStudents(List<Integer> ids){
+        if(Objects.isNull(ids) || ids.size()>MAX_BATCH_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        List<Integer> distinct=ids.stream().filter(Objects::nonNull).distinct().toList();
+        return studentCache.mget(distinct.stream().map(CacheKeys::student).toList()).flatMap(cached->{
+            Map<Integer, Student> found=new HashMap<>();
+            List<Integer> missing=new ArrayList<>();
+            for(int i=0;i<distinct.size();i++){
+                Student student=cacheCodec.decode(cached.get(i), Student.class);
+                if(student==null){
+                    cacheMetrics.miss(CacheKeys.STUDENT_FAMILY);
+                    missing.add(distinct.get(i));
+                    continue;
+                }
+                cacheMetrics.hit(CacheKeys.STUDENT_FAMILY);
+                found.put(student.getRollNo(), student);
+            }
+            return studentRepository.findAllById(missing).collectList().flatMap(loaded->{
+                Map<String, byte[]> backfill=new HashMap<>();
+                for(Student student:loaded){
+                    found.put(student.getRollNo(), student);
+                    backfill.put(CacheKeys.student(student.getRollNo()), cacheCodec.encode(student));
+                    backfill.put(CacheKeys.etag(CacheKeys.student(student.getRollNo())), ETags.encode(ETags.of(student)));
+                }
+                List<Student> response=ids.stream().map(found::get).filter(Objects::nonNull).toList();
+                return studentCache.setexAll(backfill, ttlSeconds).thenReturn(new ResponseEntity<>(response, HttpStatus.OK));
+            });
+        });
+    }
+
+    public Mono<ResponseEntity<?>> updateStudent(Student student, int id){
+        return afterWrite(id, studentRepository.updateReturning(id, student.getName(), student.getPercentage(), student.getBranch()));
+    }
+
+    public Mono<ResponseEntity<?>> patchStudent(StudentPatch patch, int id){
+        if(Objects.isNull(patch) || (patch.getName()!=null && patch.getName().isBlank())){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        return afterWrite(id, studentRepository.patchReturning(id, patch.getName(), patch.getPercentage(), patch.getBranch()));
+    }
+
+    public Mono<ResponseEntity<?>> deleteStudent(int id){
+        return studentRepository.deleteReturning(id)
+                .doOnNext(student->eventPublisher.publishEvent(StudentChangedEvent.deleted(student)))
+                .<ResponseEntity<?>>flatMap(student->invalidate(List.of(id), branches(student.getBranch()))
+                        .thenReturn(new ResponseEntity<>(student, HttpStatus.GONE)))
+                .switchIfEmpty(Mono.defer(()->invalidate(List.of(id), List.of())
+                        .thenReturn(new ResponseEntity<>(null, HttpStatus.NOT_FOUND))));
+    }
+
+    //write the returned row through to Redis, drop the listings of the old and new branch
+    private Mono<ResponseEntity<?>> afterWrite(int id, Mono<UpdatedStudent> write){
+        return write.<ResponseEntity<?>>flatMap(written->{
+            Student student=written.toStudent();
+            eventPublisher.publishEvent(StudentChangedEvent.updated(written.toPrevious(), student));
+            return studentCache.writeThrough(Map.of(CacheKeys.student(id), cacheCodec.encode(student),
+                                    CacheKeys.etag(CacheKeys.student(id)), ETags.encode(ETags.of(student))), ttlSeconds,
+                            CacheKeys.stale(List.of(), branches(student.getBranch(), written.getPreviousBranch())))
+                    .then(studentCache.publishInvalidation(id))
+                    .thenReturn(new ResponseEntity<>(student, HttpStatus.OK));
+        }).switchIfEmpty(Mono.defer(()->studentCache.del(CacheKeys.stale(List.of(), List.of()))
+                .thenReturn(new ResponseEntity<>(null, HttpStatus.NOT_FOUND))));
+    }
+
+    public Mono<ResponseEntity<Student>> createStudent(Student student){
+        if(isInvalid(student)){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        return studentRepository.insert(student)
+                .doOnNext(created->eventPublisher.publishEvent(StudentChangedEvent.created(created)))
+                .flatMap(created->studentCache.del(CacheKeys.stale(List.of(), branches(created.getBranch())))
+                        .thenReturn(new ResponseEntity<>(created, HttpStatus.CREATED)));
+    }
+
+    public Mono<ResponseEntity<List<BatchItemResult>>> createStudents(List<Student> students){
+        if(Objects.isNull(students) || students.size()>MAX_BATCH_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        List<Student> valid=students.stream().filter(student->!isInvalid(student)).toList();
+        return studentRepository.insertAll(valid).collectList().flatMap(saved->{
+            List<BatchItemResult> results=new ArrayList<>(students.size());
+            int next=0;
+            for(int i=0;i<students.size();i++){
+                results.add(isInvalid(students.get(i))
+                        ? BatchItemResult.failed(i, null, HttpStatus.BAD_REQUEST.value(), "name is required")
+                        : BatchItemResult.ok(i, HttpStatus.CREATED.value(), saved.get(next++)));
+            }
+            saved.forEach(student->eventPublisher.publishEvent(StudentChangedEvent.created(student)));
+            Set<String> branches=saved.stream().map(Student::getBranch).filter(Objects::nonNull).collect(Collectors.toSet());
+            Mono<Void> invalidation=saved.isEmpty() ? Mono.empty() : studentCache.del(CacheKeys.stale(List.of(), branches));
+            return invalidation.thenReturn(new ResponseEntity<>(results, HttpStatus.OK));
+        });
+    }
+
+    public Mono<ResponseEntity<List<BatchItemResult>>> updateStudents(List<Student> students){
+        if(Objects.isNull(students) || students.size()>MAX_BATCH_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        List<Student> valid=students.stream().filter(student->!isInvalid(student)).toList();
+        return studentRepository.updateAllReturning(valid).collectMap(UpdatedStudent::getRollNo, Function.identity()).flatMap(updated->{
+            List<BatchItemResult> results=new ArrayList<>(students.size());
+            Set<String> branches=new HashSet<>();
+            for(int i=0;i<students.size();i++){
+                Student student=students.get(i);
+                if(isInvalid(student)){
+                    results.add(BatchItemResult.failed(i, student==null ? null : student.getRollNo(), HttpStatus.BAD_REQUEST.value(), "name is required"));
+                    continue;
+                }
+                UpdatedStudent written=updated.get(student.getRollNo());
+                if(written==null){
+                    results.add(BatchItemResult.failed(i, student.getRollNo(), HttpStatus.NOT_FOUND.value(), "student not found"));
+                    continue;
+                }
+                branches.addAll(branches(written.getBranch(), written.getPreviousBranch()));
+                eventPublisher.publishEvent(StudentChangedEvent.updated(written.toPrevious(), written.toStudent()));
+                results.add(BatchItemResult.ok(i, HttpStatus.OK.value(), written.toStudent()));
+            }
+            Mono<Void> invalidation=updated.isEmpty() ? Mono.empty() : invalidate(updated.keySet(), branches);
+            return invalidation.thenReturn(new ResponseEntity<>(results, HttpStatus.OK));
+        });
+    }
+
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteStudents(List<Integer> ids){
+        if(Objects.isNull(ids) || ids.size()>MAX_BATCH_SIZE){
+            return Mono.just(new ResponseEntity<>(null, HttpStatus.BAD_REQUEST));
+        }
+        List<Integer> distinct=ids.stream().filter(Objects::nonNull).distinct().toList();
+        return studentRepository.deleteAllByIdReturning(distinct).collectMap(Student::getRollNo, Function.identity()).flatMap(deleted->{
+            List<BatchItemResult> results=new ArrayList<>(ids.size());
+            for(int i=0;i<ids.size();i++){
+                Student student=deleted.get(ids.get(i));
+                results.add(student==null
+                        ? BatchItemResult.failed(i, ids.get(i), HttpStatus.NOT_FOUND.value(), "student not found")
+                        : BatchItemResult.ok(i, HttpStatus.GONE.value(), student));
+            }
+            deleted.values().forEach(student->eventPublisher.publishEvent(StudentChangedEvent.deleted(student)));
+            Set<String> branches=deleted.values().stream().map(Student::getBranch).filter(Objects::nonNull).collect(Collectors.toSet());
+            Mono<Void> invalidation=deleted.isEmpty() ? Mono.empty() : invalidate(deleted.keySet(), branches);
+            return invalidation.thenReturn(new ResponseEntity<>(results, HttpStatus.OK));
+        });
+    }
+
+    /**
+     * Cache-aside read of one Redis key, a miss loads from the database and writes the value back.
+     */
+    private <T> Mono<T> readThrough(String cacheKey, String family, Type type, Mono<T> load){
+        return studentCache.get(cacheKey)
+                .<T>mapNotNull(bytes->cacheCodec.decode(bytes, type))
+                .doOnNext(value->cacheMetrics.hit(family))
+                .switchIfEmpty(Mono.defer(()->{
+                    cacheMetrics.miss(family);
+                    return coalesce(cacheKey, load.flatMap(loaded->studentCache.setex(cacheKey, ttlSeconds, cacheCodec.encode(loaded)).thenReturn(loaded)));
+                }));
+    }
+
+    //cache-aside read of one field of a Redis hash
+    private <T> Mono<T> readThroughHash(String hashKey, String field, Type type, Mono<T> load){
+        String family=CacheKeys.family(hashKey);
+        return studentCache.hget(hashKey, field)
+                .<T>mapNotNull(bytes->cacheCodec.decode(bytes, type))
+                .doOnNext(value->cacheMetrics.hit(family))
+                .switchIfEmpty(Mono.defer(()->{
+                    cacheMetrics.miss(family);
+                    return coalesce(hashKey+":"+field, load.flatMap(loaded->studentCache.hsetex(hashKey, field, ttlSeconds, cacheCodec.encode(loaded)).thenReturn(loaded)));
+                }));
+    }
+
+    //the first caller's load is shared with everyone asking for the same key until it completes
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> coalesce(String key, Mono<T> load){
+        return (Mono<T>) inFlight.computeIfAbsent(key, k->load.doFinally(signal->inFlight.remove(k)).cache());
+    }
+
+    //one DEL for every affected Redis key, one PUBLISH for the near caches of the servlet nodes
+    private Mono<Void> invalidate(Collection<Integer> ids, Collection<String> branches){
+        return studentCache.del(CacheKeys.stale(ids, branches)).then(studentCache.publishInvalidation(ids));
+    }
+
+    private static List<String> branches(String... branches){
+        return Arrays.stream(branches).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static boolean isInvalid(Student student){
+        return Objects.isNull(student) || student.getName()==null || student.getName().isBlank();
+    }
+}
@@ -0,0 +1,298 @@
+package com.springboot.sms.sms_spring.service.impl;
+
+import com.springboot.sms.sms_spring.dto.ExportSnapshot;
+import com.springboot.sms.sms_spring.export.ExportFormat;
+import com.springboot.sms.sms_spring.export.ExportWriter;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import com.springboot.sms.sms_spring.service.StudentExportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Snapshots of the student table written to local files. An export runs on a single background thread:
+ * rows are read through a database cursor and encoded straight into the file channel, then the file is
+ * renamed into place and never changes again. Downloads hand the file to Tomcat's sendfile support, so the
+ * kernel copies it to the socket without the bytes passing through the heap; elsewhere it is transferred
+ * with {@link FileChannel#transferTo}. Single byte ranges are honoured.
+ * Finished snapshots are found again on startup, only the newest {@code sms.export.retain} per format are kept.
+ * Tomcat opens a sendfile download only after the handler returns, so a pruned file that was just handed to it
+ * is deleted {@code sms.export.sendfile-grace-seconds} later instead of right away.
+ */
+@Service
+@Profile("!reactive")
+public class StudentExportServiceImpl implements StudentExportService {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentExportServiceImpl.class);
+    private static final DateTimeFormatter ID_TIME=DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final String PART=".part";
+
+    //request attributes of Tomcat's sendfile support, the same ones its DefaultServlet sets
+    private static final String SENDFILE_SUPPORT="org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME="org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START="org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END="org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private StudentExportRepository studentExportRepository;
+
+    @Value("${sms.export.directory:${java.io.tmpdir}/sms-exports}")
+    private Path directory;
+
+    @Value("${sms.export.retain:3}")
+    private int retain=3;
+
+    @Value("${sms.export.sendfile-grace-seconds:60}")
+    private long sendfileGraceSeconds=60;
+
+    private final Map<String, ExportSnapshot> snapshots=new ConcurrentHashMap<>();
+    //snapshot id to System.nanoTime() of its last hand-off to sendfile
+    private final Map<String, Long> handedOff=new ConcurrentHashMap<>();
+    //pruned files sendfile may still be about to open, to the nanoTime they were pruned at
+    private final Map<Path, Long> retired=new ConcurrentHashMap<>();
+    private final AtomicInteger sequence=new AtomicInteger();
+    private final ExecutorService executor=Executors.newSingleThreadExecutor(r->{
+        Thread thread=new Thread(r, "student-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        try(DirectoryStream<Path> files=Files.newDirectoryStream(directory)){
+            for(Path file:files){
+                String name=file.getFileName().toString();
+                if(name.endsWith(PART)){
+                    //left over by an export that did not finish
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                int dot=name.lastIndexOf('.');
+                ExportFormat format=dot<0 ? null : ExportFormat.parse(name.substring(dot+1));
+                if(format==null) continue;
+                Instant modified=Files.getLastModifiedTime(file).toInstant();
+                String id=name.substring(0, dot);
+                snapshots.put(id, new ExportSnapshot(id, format, ExportSnapshot.Status.READY, modified, modified, null, Files.size(file), null));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown(){
+        executor.shutdownNow();
+    }
+
+    public ResponseEntity<ExportSnapshot> createExport(String format){
+        ExportFormat exportFormat=ExportFormat.parse(format);
+        if(exportFormat==null){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        ExportSnapshot snapshot=submit(exportFormat);
+        return ResponseEntity.accepted().location(URI.create("/students/exports/"+snapshot.getId())).body(snapshot);
+    }
+
+    //nightly snapshots for reporting, disabled unless sms.export.cron is set
+    @Scheduled(cron = "${sms.export.cron:-}")
+    public void scheduledExport(){
+        for(ExportFormat format:ExportFormat.values()) submit(format);
+    }
+
+    public ResponseEntity<List<ExportSnapshot>> getExports(){
+        List<ExportSnapshot> all=snapshots.values().stream()
+                .sorted(Comparator.comparing(ExportSnapshot::getCreatedAt).reversed())
+                .toList();
+        return new ResponseEntity<>(all, HttpStatus.OK);
+    }
+
+    public ResponseEntity<ExportSnapshot> getExport(String id){
+        ExportSnapshot snapshot=snapshots.get(id);
+        return new ResponseEntity<>(snapshot, snapshot==null ? HttpStatus.NOT_FOUND : HttpStatus.OK);
+    }
+
+    /**
+     * Serves a READY snapshot, the whole file or the single range asked for. The snapshot id is the ETag,
+     * a file never changes once it is READY. Several ranges in one request are answered with the whole file.
+     */
+    public void download(String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportSnapshot snapshot=snapshots.get(id);
+        if(snapshot==null || snapshot.getStatus()!=ExportSnapshot.Status.READY){
+            response.setStatus(snapshot==null ? HttpStatus.NOT_FOUND.value() : HttpStatus.CONFLICT.value());
+            return;
+        }
+        Path file=file(snapshot);
+        long length=snapshot.getBytes();
+        String etag="\""+id+"\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if(etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))){
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        long start=0;
+        long end=length-1;
+        String range=request.getHeader(HttpHeaders.RANGE);
+        String ifRange=request.getHeader(HttpHeaders.IF_RANGE);
+        if(range!=null && (ifRange==null || ifRange.equals(etag))){
+            List<HttpRange> ranges;
+            try{
+                ranges=HttpRange.parseRanges(range);
+            }catch (IllegalArgumentException e){
+                ranges=List.of();
+            }
+            if(ranges.size()==1){
+                start=ranges.get(0).getRangeStart(length);
+                end=ranges.get(0).getRangeEnd(length);
+                if(start>=length || start>end){
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */"+length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes "+start+"-"+end+"/"+length);
+            }
+        }
+        response.setContentType(snapshot.getFormat().getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students-"+file.getFileName()+"\"");
+        long count=end-start+1;
+        response.setContentLengthLong(count);
+        if(count==0 || "HEAD".equals(request.getMethod())) return;
+        if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))){
+            //recorded before the check, prune removes before it looks: one of the two sees the other
+            handedOff.put(id, System.nanoTime());
+            if(snapshots.get(id)==snapshot){
+                //Tomcat writes the file after the handler returns, with FileChannel.transferTo to the socket
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end+1);
+                return;
+            }
+        }
+        FileChannel channel;
+        try{
+            channel=FileChannel.open(file, StandardOpenOption.READ);
+        }catch (NoSuchFileException e){
+            //pruned since it was looked up
+            response.reset();
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        try(channel){
+            WritableByteChannel out=Channels.newChannel(response.getOutputStream());
+            long position=start;
+            while(position<=end){
+                position+=channel.transferTo(position, end+1-position, out);
+            }
+        }
+    }
+
+    private ExportSnapshot submit(ExportFormat format){
+        Instant now=Instant.now();
+        String id=ID_TIME.format(now)+"-"+sequence.incrementAndGet();
+        ExportSnapshot snapshot=new ExportSnapshot(id, format, ExportSnapshot.Status.RUNNING, now, null, null, null, null);
+        snapshots.put(id, snapshot);
+        executor.execute(()->runExport(snapshot));
+        return snapshot;
+    }
+
+    //snapshots are replaced rather than mutated, readers on other threads only ever see complete ones
+    void runExport(ExportSnapshot snapshot){
+        Path file=file(snapshot);
+        Path part=file.resolveSibling(file.getFileName()+PART);
+        try{
+            long rows;
+            try(FileChannel channel=FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ExportWriter writer=snapshot.getFormat().open(channel)){
+                studentExportRepository.forEach(writer);
+                rows=writer.getRows();
+            }
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            //the older ones are gone by the time the new one shows as READY
+            prune(snapshot.getFormat(), retain-1);
+            snapshots.put(snapshot.getId(), new ExportSnapshot(snapshot.getId(), snapshot.getFormat(), ExportSnapshot.Status.READY,
+                    snapshot.getCreatedAt(), Instant.now(), rows, Files.size(file), null));
+        }catch (IOException | RuntimeException e){
+            log.warn("Export {} failed", snapshot.getId(), e);
+            try{
+                Files.deleteIfExists(part);
+            }catch (IOException ignored){
+            }
+            snapshots.put(snapshot.getId(), new ExportSnapshot(snapshot.getId(), snapshot.getFormat(), ExportSnapshot.Status.FAILED,
+                    snapshot.getCreatedAt(), Instant.now(), null, null, e.getMessage()));
+        }
+    }
+
+    //downloads already in progress keep reading a deleted file through their open descriptor
+    private void prune(ExportFormat format, int keep){
+        List<ExportSnapshot> ready=snapshots.values().stream()
+                .filter(s->s.getFormat()==format && s.getStatus()==ExportSnapshot.Status.READY)
+                .sorted(Comparator.comparing(ExportSnapshot::getCreatedAt).reversed())
+                .toList();
+        long now=System.nanoTime();
+        long grace=TimeUnit.SECONDS.toNanos(sendfileGraceSeconds);
+        for(ExportSnapshot old:ready.subList(Math.min(Math.max(0, keep), ready.size()), ready.size())){
+            snapshots.remove(old.getId());
+            Long handed=handedOff.remove(old.getId());
+            if(handed!=null && now-handed<grace) retired.put(file(old), now);
+            else delete(file(old));
+        }
+        deleteRetired();
+    }
+
+    //files pruned while Tomcat may still have been about to open them
+    @Scheduled(fixedDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void deleteRetired(){
+        long now=System.nanoTime();
+        long grace=TimeUnit.SECONDS.toNanos(sendfileGraceSeconds);
+        retired.forEach((file, prunedAt)->{
+            if(now-prunedAt>=grace && retired.remove(file, prunedAt)) delete(file);
+        });
+    }
+
+    private void delete(Path file){
+        try{
+            Files.deleteIfExists(file);
+        }catch (IOException e){
+            log.warn("Could not delete export {}", file.getFileName(), e);
+        }
+    }
+
+    private Path file(ExportSnapshot snapshot){
+        return directory.resolve(snapshot.getId()+"."+snapshot.getFormat().getExtension());
+    }
+}
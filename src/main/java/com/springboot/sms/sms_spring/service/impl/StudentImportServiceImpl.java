@@ -0,0 +1,144 @@
+package com.springboot.sms.sms_spring.service.impl;
+
+import com.google.gson.Gson;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.dto.ImportProgress;
+import com.springboot.sms.sms_spring.dto.ImportRowError;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.importer.ImportRow;
+import com.springboot.sms.sms_spring.importer.ImportRowReader;
+import com.springboot.sms.sms_spring.repository.StudentCopyRepository;
+import com.springboot.sms.sms_spring.service.StudentImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Streams an uploaded file into the student table. Records are parsed one at a time and validated,
+ * valid ones are collected into chunks of {@code sms.import.chunk-rows} and loaded with one COPY each,
+ * so heap use does not depend on the file size. A progress line is written after every chunk.
+ * The Redis listings of the touched branches are dropped once, when the import ends.
+ */
+@Service
+@Profile("!reactive")
+public class StudentImportServiceImpl implements StudentImportService {
+
+    //width of the varchar columns Hibernate created, longer values would fail the whole chunk
+    private static final int MAX_TEXT_LENGTH=255;
+
+    @Autowired
+    private StudentCopyRepository studentCopyRepository;
+
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${sms.import.chunk-rows:10000}")
+    private int chunkRows=10000;
+
+    private Gson gson=new Gson();
+
+    public ResponseEntity<StreamingResponseBody> importStudents(InputStream in, MediaType contentType){
+        ImportRowReader reader;
+        try{
+            reader=ImportRowReader.open(in, contentType);
+        }catch (IllegalArgumentException | IOException e){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body=out->importRows(reader, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    void importRows(ImportRowReader reader, OutputStream out) throws IOException {
+        Writer writer=new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ImportProgress progress=new ImportProgress();
+        List<Student> chunk=new ArrayList<>(chunkRows);
+        Set<String> branches=new HashSet<>();
+        try{
+            long reported=0;
+            ImportRow row;
+            while((row=reader.next())!=null){
+                progress.setRows(progress.getRows()+1);
+                String error=row.error()!=null ? row.error() : validate(row.student());
+                if(error!=null){
+                    progress.setRejected(progress.getRejected()+1);
+                    progress.getErrors().add(new ImportRowError(row.line(), error));
+                }else{
+                    chunk.add(row.student());
+                }
+                //a report per chunk of records read also bounds the error list when most rows are rejected
+                if(chunk.size()==chunkRows || progress.getRows()-reported==chunkRows){
+                    load(chunk, progress, branches);
+                    report(writer, progress);
+                    reported=progress.getRows();
+                }
+            }
+            load(chunk, progress, branches);
+        }catch (DataAccessException e){
+            progress.setFailure(e.getMostSpecificCause().getMessage());
+        }finally{
+            if(!branches.isEmpty()) studentCache.del(CacheKeys.stale(List.of(), branches));
+        }
+        progress.setDone(true);
+        report(writer, progress);
+    }
+
+    private void load(List<Student> chunk, ImportProgress progress, Set<String> branches){
+        if(chunk.isEmpty()) return;
+        int[] ids=studentCopyRepository.nextIds(chunk.size());
+        for(int i=0;i<ids.length;i++){
+            chunk.get(i).setRollNo(ids[i]);
+        }
+        studentCopyRepository.copy(chunk);
+        progress.setImported(progress.getImported()+chunk.size());
+        for(Student student:chunk){
+            if(student.getBranch()!=null) branches.add(student.getBranch());
+            eventPublisher.publishEvent(StudentChangedEvent.created(student));
+        }
+        chunk.clear();
+    }
+
+    private void report(Writer writer, ImportProgress progress) throws IOException {
+        gson.toJson(progress, ImportProgress.class, writer);
+        writer.write('\n');
+        writer.flush();
+        progress.getErrors().clear();
+    }
+
+    private static String validate(Student student){
+        if(Objects.isNull(student) || student.getName()==null || student.getName().isBlank()){
+            return "name is required";
+        }
+        if(student.getName().length()>MAX_TEXT_LENGTH || (student.getBranch()!=null && student.getBranch().length()>MAX_TEXT_LENGTH)){
+            return "name and branch are limited to "+MAX_TEXT_LENGTH+" characters";
+        }
+        if(!Float.isFinite(student.getPercentage())){
+            return "percentage must be a finite number";
+        }
+        return null;
+    }
+}
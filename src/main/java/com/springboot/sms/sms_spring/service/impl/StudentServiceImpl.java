@@ -2,75 +2,460 @@ package com.springboot.sms.sms_spring.service.impl;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
-import com.springboot.sms.sms_spring.config.RedisConfig;
+import com.springboot.sms.sms_spring.analytics.StudentAnalytics;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.ETags;
+import com.springboot.sms.sms_spring.cache.ReplicaLagInvalidation;
+import com.springboot.sms.sms_spring.cache.SingleFlight;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.BranchStats;
+import com.springboot.sms.sms_spring.dto.PercentileStats;
+import com.springboot.sms.sms_spring.dto.StudentFieldsPage;
+import com.springboot.sms.sms_spring.dto.StudentMatch;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentRank;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.dto.WriteStatus;
 import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import com.springboot.sms.sms_spring.repository.StudentField;
 import com.springboot.sms.sms_spring.repository.StudentRepository;
+import com.springboot.sms.sms_spring.repository.UpdatedStudent;
+import com.springboot.sms.sms_spring.search.StudentNameIndex;
 import com.springboot.sms.sms_spring.service.StudentService;
+import com.springboot.sms.sms_spring.stats.StudentStatistics;
+import com.springboot.sms.sms_spring.warmup.StudentAccessTracker;
+import com.springboot.sms.sms_spring.writebehind.StudentWriteBehind;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import redis.clients.jedis.Jedis;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 public class StudentServiceImpl implements StudentService {
 
+    private static final Type STUDENT_LIST_TYPE=new TypeToken<List<Student>>(){}.getType();
+    private static final Sort BY_PERCENTAGE=Sort.by(Sort.Order.desc("percentage"), Sort.Order.asc("rollNo"));
+    private static final int MAX_PAGE_SIZE=1000;
+    private static final int MAX_BATCH_SIZE=1000;
+
     @Autowired
     private StudentRepository studentRepository;
 
-    private Jedis jedis= RedisConfig.getJedis();
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private StudentNearCache studentNearCache;
+
+    @Autowired
+    private CacheCodec cacheCodec;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private StudentAccessTracker studentAccessTracker;
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
+    //only with sms.write-behind.enabled
+    @Autowired(required = false)
+    private StudentWriteBehind studentWriteBehind;
+
+    //only with sms.analytics.enabled
+    @Autowired(required = false)
+    private StudentAnalytics studentAnalytics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${sms.cache.ttl-seconds:5}")
+    private long ttlSeconds=5;
+
+    //probabilistic early refresh (XFetch): reload a hot key shortly before it expires
+    @Value("${sms.cache.early-refresh.enabled:false}")
+    private boolean earlyRefresh;
+
+    @Value("${sms.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta=1.0;
+
     private Gson gson=new Gson();
+    private final SingleFlight singleFlight=new SingleFlight();
+    //smoothed database load time per key family, in millis
+    private final Map<String, Double> loadMillis=new ConcurrentHashMap<>();
+
+    public ResponseEntity<List<Student>> getAllStudent(String ifNoneMatch){
+        ResponseEntity<List<Student>> notModified=notModified(CacheKeys.ALL_STUDENTS, CacheKeys.ALL_STUDENTS, ifNoneMatch);
+        if(notModified!=null) return notModified;
+        List<Student> response=readThrough(CacheKeys.ALL_STUDENTS, CacheKeys.ALL_STUDENTS, STUDENT_LIST_TYPE,
+                studentRepository::findAll, ETags::of);
+        return conditional(response, ETags.of(response), ifNoneMatch, HttpStatus.FOUND);
+    }
+
+    public ResponseEntity<StudentPage> getStudentPage(int after, int limit){
+        if(limit<1 || limit>MAX_PAGE_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        StudentPage page=readThroughHash(CacheKeys.PAGES, after+":"+limit, StudentPage.class, ()->{
+            List<Student> students=studentRepository.findByRollNoGreaterThanOrderByRollNoAsc(after, Limit.of(limit));
+            Integer nextAfter=students.size()<limit ? null : students.get(students.size()-1).getRollNo();
+            return new StudentPage(students, nextAfter);
+        });
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Listing narrowed to the given fields, the whole table or one keyset page of it when after or limit is given.
+     * Only the requested columns are selected and serialized. These are not cached, the narrow query is
+     * cheaper to repeat than a full listing is to keep in Redis per combination of fields.
+     */
+    public ResponseEntity<?> getStudentFields(String fields, Integer after, Integer limit){
+        Set<StudentField> selected;
+        try{
+            selected=StudentField.parse(fields);
+        }catch (IllegalArgumentException e){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        if(after==null && limit==null){
+            return new ResponseEntity<>(studentRepository.findProjected(selected, Integer.MIN_VALUE, null), HttpStatus.FOUND);
+        }
+        int pageLimit=limit==null ? 100 : limit;
+        if(pageLimit<1 || pageLimit>MAX_PAGE_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<Map<String, Object>> students=studentRepository.findProjected(selected, after==null ? 0 : after, pageLimit);
+        Integer nextAfter=students.size()<pageLimit ? null : (Integer) students.get(students.size()-1).get(StudentField.ROLL_NO.property());
+        return new ResponseEntity<>(new StudentFieldsPage(students, nextAfter), HttpStatus.OK);
+    }
+
+    /**
+     * Students in a percentage range, optionally limited to one branch, best first.
+     * Results are cached per branch so that only writes to that branch invalidate them.
+     */
+    public ResponseEntity<StudentSlice> findStudents(String branch, float minPercentage, float maxPercentage, int page, int size){
+        if(page<0 || size<1 || size>MAX_PAGE_SIZE || minPercentage>maxPercentage){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        String field="filter:"+minPercentage+":"+maxPercentage+":"+page+":"+size;
+        StudentSlice slice=readThroughHash(CacheKeys.query(branch), field, StudentSlice.class, ()->{
+            PageRequest pageRequest=PageRequest.of(page, size, BY_PERCENTAGE);
+            Slice<Student> result=branch==null
+                    ? studentRepository.findByPercentageBetween(minPercentage, maxPercentage, pageRequest)
+                    : studentRepository.findByBranchAndPercentageBetween(branch, minPercentage, maxPercentage, pageRequest);
+            return new StudentSlice(result.getContent(), page, size, result.hasNext());
+        });
+        return new ResponseEntity<>(slice, HttpStatus.OK);
+    }
+
+    public ResponseEntity<List<Student>> getTopStudents(String branch, int n){
+        if(n<1 || n>MAX_PAGE_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<Student> top=readThroughHash(CacheKeys.query(branch), "top:"+n, STUDENT_LIST_TYPE, ()->branch==null
+                ? studentRepository.findAllByOrderByPercentageDescRollNoAsc(Limit.of(n))
+                : studentRepository.findByBranchOrderByPercentageDescRollNoAsc(branch, Limit.of(n)));
+        return new ResponseEntity<>(top, HttpStatus.OK);
+    }
+
+    //typeahead over the in-memory name index, neither Redis nor the database is involved
+    public ResponseEntity<List<StudentMatch>> searchStudents(String query, int limit){
+        if(query==null || query.isBlank() || limit<1 || limit>MAX_PAGE_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(studentNameIndex.search(query, limit), HttpStatus.OK);
+    }
+
+    //cache-aside read of one field of a Redis hash, concurrent misses share one database load
+    private <T> T readThroughHash(String hashKey, String field, Type type, Supplier<T> load){
+        T cached=cacheCodec.decode(studentCache.hget(hashKey, field), type);
+        String family=CacheKeys.family(hashKey);
+        if(cached!=null){
+            cacheMetrics.hit(family);
+            return cached;
+        }
+        cacheMetrics.miss(family);
+        return singleFlight.execute(hashKey+":"+field, ()->{
+            T loaded=load.get();
+            studentCache.hsetex(hashKey, field, ttlSeconds, cacheCodec.encode(loaded));
+            return loaded;
+        });
+    }
+
+    /**
+     * Writes every student as one JSON document per line. Rows are pulled through a database cursor
+     * and detached once written, so memory stays flat regardless of the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllStudents(OutputStream out) throws IOException {
+        Writer writer=new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try(Stream<Student> students=studentRepository.streamAllByOrderByRollNo()){
+            students.forEach(s->{
+                try{
+                    gson.toJson(s, Student.class, writer);
+                    writer.write('\n');
+                }catch (IOException e){
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(s);
+            });
+        }catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    public ResponseEntity<?> getStatistics(String branch){
+        if(branch==null){
+            return new ResponseEntity<>(studentStatistics.getAll(), HttpStatus.OK);
+        }
+        BranchStats stats=studentStatistics.get(branch);
+        return new ResponseEntity<>(stats, stats==null ? HttpStatus.NOT_FOUND : HttpStatus.OK);
+    }
+
+    public ResponseEntity<PercentileStats> getPercentiles(String branch, List<Double> percentiles){
+        if(studentAnalytics==null){
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        if(percentiles.isEmpty() || percentiles.size()>MAX_PAGE_SIZE
+                || percentiles.stream().anyMatch(p->p==null || !(p>0 && p<=100))){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        double[] p=percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+        return new ResponseEntity<>(studentAnalytics.percentiles(branch, p), HttpStatus.OK);
+    }
 
-    public ResponseEntity<List<Student>> getAllStudent(){
-        String cacheKey="students:all";
-        String cachedStudents=jedis.get(cacheKey);
-        if(cachedStudents!=null){
-            System.out.println("Got from Redis");
-            return new ResponseEntity<>(gson.fromJson(cachedStudents,List.class), HttpStatus.FOUND);
+    public ResponseEntity<StudentRank> getRank(int id, String scope){
+        if(!"branch".equals(scope) && !"all".equals(scope)){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        StudentRank rank=studentAnalytics==null ? null : studentAnalytics.rank(id, "branch".equals(scope));
+        return new ResponseEntity<>(rank, rank==null ? HttpStatus.NOT_FOUND : HttpStatus.OK);
+    }
+
+    public ResponseEntity<?> getStudent(int id, String ifNoneMatch){
+        studentAccessTracker.record(id);
+        Student nearCached=studentNearCache.get(id);
+        if(nearCached!=null){
+            return conditional(nearCached, ETags.of(nearCached), ifNoneMatch, HttpStatus.FOUND);
+        }
+        ResponseEntity<Student> notModified=notModified(CacheKeys.student(id), CacheKeys.STUDENT_FAMILY, ifNoneMatch);
+        if(notModified!=null) return notModified;
+        Student response=readThrough(CacheKeys.student(id), CacheKeys.STUDENT_FAMILY, Student.class,
+                ()->studentRepository.findById(id).orElse(null), ETags::of);
+        if(response==null){
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+        studentNearCache.put(response);
+        return conditional(response, ETags.of(response), ifNoneMatch, HttpStatus.FOUND);
+    }
+
+    //304 from the tag cached next to the value, the cached body is neither fetched nor decoded; null to carry on
+    private <T> ResponseEntity<T> notModified(String cacheKey, String family, String ifNoneMatch){
+        if(ifNoneMatch==null) return null;
+        String etag=ETags.decode(studentCache.get(CacheKeys.etag(cacheKey)));
+        if(!ETags.noneMatchHit(ifNoneMatch, etag)) return null;
+        cacheMetrics.hit(family);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static <T> ResponseEntity<T> conditional(T body, String etag, String ifNoneMatch, HttpStatus status){
+        if(ETags.noneMatchHit(ifNoneMatch, etag)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
-        List<Student> response=studentRepository.findAll();
-        jedis.setex(cacheKey,5, gson.toJson(response));
-        return new ResponseEntity<>(response, HttpStatus.FOUND);
+        return ResponseEntity.status(status).eTag(etag).body(body);
     }
 
-    public ResponseEntity<?> getStudent(int id){
-        String cacheKey="students"+id;
-        String cachedStudent=jedis.get(cacheKey);
-        if(cachedStudent!=null){
-            System.out.println("Got from Redis");
-            return new ResponseEntity<>(gson.fromJson(cachedStudent,Student.class), HttpStatus.FOUND);
+    /**
+     * Resolves several students in request order: near cache first, then one MGET for the rest,
+     * then one findAllById for whatever Redis did not have. Loaded rows are backfilled with one pipelined SETEX.
+     * Unknown ids are left out of the result.
+     */
+    public ResponseEntity<List<Student>> getStudents(List<Integer> ids){
+        if(Objects.isNull(ids) || ids.size()>MAX_BATCH_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        Map<Integer, Student> found=new HashMap<>();
+        List<Integer> remoteIds=new ArrayList<>();
+        for(Integer id:new LinkedHashSet<>(ids)){
+            if(id==null) continue;
+            studentAccessTracker.record(id);
+            Student nearCached=studentNearCache.get(id);
+            if(nearCached!=null) found.put(id, nearCached);
+            else remoteIds.add(id);
         }
-        Optional<Student> response=studentRepository.findById(id);
-        response.ifPresent(s->jedis.setex(cacheKey,5, gson.toJson(s)));
-        return new ResponseEntity<>(response, (response.isEmpty())?HttpStatus.NOT_FOUND:HttpStatus.FOUND);
+        List<byte[]> cached=studentCache.mget(remoteIds.stream().map(CacheKeys::student).toList());
+        List<Integer> missing=new ArrayList<>();
+        for(int i=0;i<remoteIds.size();i++){
+            Student student=cacheCodec.decode(cached.get(i), Student.class);
+            if(student==null){
+                cacheMetrics.miss(CacheKeys.STUDENT_FAMILY);
+                missing.add(remoteIds.get(i));
+                continue;
+            }
+            cacheMetrics.hit(CacheKeys.STUDENT_FAMILY);
+            studentNearCache.put(student);
+            found.put(student.getRollNo(), student);
+        }
+        if(!missing.isEmpty()){
+            Map<String, byte[]> backfill=new HashMap<>();
+            for(Student student:studentRepository.findAllById(missing)){
+                found.put(student.getRollNo(), student);
+                studentNearCache.put(student);
+                backfill.put(CacheKeys.student(student.getRollNo()), cacheCodec.encode(student));
+                backfill.put(CacheKeys.etag(CacheKeys.student(student.getRollNo())), ETags.encode(ETags.of(student)));
+            }
+            studentCache.setexAll(backfill, ttlSeconds);
+        }
+        List<Student> response=ids.stream().map(found::get).filter(Objects::nonNull).toList();
+        return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    public ResponseEntity<?> updateStudent(Student student, int id){
-        String cacheKey="students"+id;
-        Optional<Student> response=studentRepository.findById(id);
-        Student newStudent=null;
-        if(!response.isEmpty()){
-            newStudent=studentRepository.findById(id).orElseThrow();
-            newStudent.setName(student.getName());
-            newStudent.setPercentage(student.getPercentage());
-            newStudent.setBranch(student.getBranch());
-            studentRepository.save(newStudent);
-            jedis.setex(cacheKey,5,gson.toJson(newStudent,Student.class));
+    /**
+     * Cache-aside read of one Redis key. On a miss only one caller per key loads from the database,
+     * concurrent callers wait for its result. With early refresh enabled a hit may still trigger a reload,
+     * with a probability that grows as the key gets closer to expiry and the longer its load takes.
+     * A loaded value is cached together with its entity tag. With read replicas the load goes to a replica like any
+     * other read; a pre-write value it may bring back is dropped again by {@link ReplicaLagInvalidation}.
+     */
+    private <T> T readThrough(String cacheKey, String family, Type type, Supplier<T> load, Function<T, String> etag){
+        byte[] cached;
+        boolean refresh=false;
+        if(earlyRefresh){
+            StudentCache.CachedValue value=studentCache.getWithTtl(cacheKey);
+            cached=value==null ? null : value.value();
+            refresh=value!=null && shouldRefreshEarly(cacheKey, family, value.ttlMillis());
+        }else{
+            cached=studentCache.get(cacheKey);
         }
-        return new ResponseEntity<>(newStudent, (response.isEmpty())?HttpStatus.NOT_FOUND:HttpStatus.OK);
+        T decoded=cacheCodec.decode(cached, type);
+        if(decoded!=null && !refresh){
+            cacheMetrics.hit(family);
+            return decoded;
+        }
+        cacheMetrics.miss(family);
+        return singleFlight.execute(cacheKey, ()->{
+            long start=System.nanoTime();
+            T loaded=load.get();
+            loadMillis.merge(family, (System.nanoTime()-start)/1e6, (old, sample)->0.8*old+0.2*sample);
+            if(loaded!=null){
+                studentCache.setexAll(Map.of(cacheKey, cacheCodec.encode(loaded),
+                        CacheKeys.etag(cacheKey), ETags.encode(etag.apply(loaded))), ttlSeconds);
+            }
+            return loaded;
+        });
+    }
+
+    private boolean shouldRefreshEarly(String cacheKey, String family, long ttlMillis){
+        if(ttlMillis<=0 || singleFlight.isInFlight(cacheKey)) return false;
+        double delta=loadMillis.getOrDefault(family, 0.0);
+        return -delta*earlyRefreshBeta*Math.log(ThreadLocalRandom.current().nextDouble())>=ttlMillis;
+    }
+
+    /**
+     * Full update. With If-Match the row is only written while its version is one of the tags listed,
+     * otherwise the answer is 412 and nothing changes; {@code *} just requires the student to exist.
+     */
+    public ResponseEntity<?> updateStudent(Student student, int id, String ifMatch){
+        List<Integer> versions=ifMatch==null ? null : ETags.versions(ifMatch);
+        Optional<UpdatedStudent> written;
+        if(versions==null){
+            written=studentRepository.updateReturning(id, student.getName(), student.getPercentage(), student.getBranch());
+        }else{
+            written=versions.isEmpty() ? Optional.empty()
+                    : studentRepository.updateIfVersionReturning(id, student.getName(), student.getPercentage(), student.getBranch(), versions);
+            if(written.isEmpty() && studentRepository.existsById(id)){
+                return new ResponseEntity<>(null, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+        return written(afterWrite(id, written));
+    }
+
+    public ResponseEntity<?> patchStudent(StudentPatch patch, int id){
+        if(Objects.isNull(patch) || (patch.getName()!=null && patch.getName().isBlank())){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        return written(afterWrite(id, studentRepository.patchReturning(id, patch.getName(), patch.getPercentage(), patch.getBranch())));
+    }
+
+    private static ResponseEntity<?> written(Optional<Student> student){
+        return student.<ResponseEntity<?>>map(s->ResponseEntity.ok().eTag(ETags.of(s)).body(s))
+                .orElseGet(()->new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
     }
 
     public ResponseEntity<?> deleteStudent(int id){
-        String cacheKey="students"+id;
-        jedis.del(cacheKey);
-        Optional<Student> response=studentRepository.findById(id);
-        if(response.isPresent()) studentRepository.deleteById(id);
-        return new ResponseEntity<>(response, (response.isEmpty())?HttpStatus.NOT_FOUND:HttpStatus.GONE);
+        Optional<Student> response=studentRepository.deleteReturning(id);
+        response.ifPresent(s->eventPublisher.publishEvent(StudentChangedEvent.deleted(s)));
+        studentCache.del(CacheKeys.stale(List.of(id), response.map(Student::getBranch).stream().toList()));
+        studentNearCache.invalidate(id);
+        return new ResponseEntity<>(response.orElse(null), (response.isEmpty())?HttpStatus.NOT_FOUND:HttpStatus.GONE);
+    }
+
+    //write the returned row through to both cache levels, drop the listings of the old and new branch;
+    //nothing was updated when the id does not exist, every cached value is still current then
+    private Optional<Student> afterWrite(int id, Optional<UpdatedStudent> written){
+        if(written.isEmpty()) return Optional.empty();
+        Student student=written.get().toStudent();
+        eventPublisher.publishEvent(StudentChangedEvent.updated(written.get().toPrevious(), student));
+        studentCache.writeThrough(Map.of(CacheKeys.student(id), cacheCodec.encode(student),
+                        CacheKeys.etag(CacheKeys.student(id)), ETags.encode(ETags.of(student))), ttlSeconds,
+                CacheKeys.stale(List.of(), branches(student.getBranch(), written.get().getPreviousBranch())));
+        studentNearCache.put(student);
+        studentNearCache.publishInvalidation(id);
+        return Optional.of(student);
     }
 
 
@@ -79,8 +464,153 @@ public class StudentServiceImpl implements StudentService {
         if(Objects.isNull(student)){
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         }
+        if(studentWriteBehind!=null){
+            return acceptCreate(student);
+        }
+        student.setVersion(0);
         Student response=studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangedEvent.created(response));
+        studentCache.del(CacheKeys.stale(List.of(), branches(response.getBranch())));
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
-}
\ No newline at end of file
+    //202 with the roll number reserved for the student, 503 while the write-behind queue is full
+    private ResponseEntity<Student> acceptCreate(Student student){
+        WriteStatus status;
+        try{
+            status=studentWriteBehind.accept(student);
+        }catch (IOException e){
+            status=null;
+        }
+        if(status==null){
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.accepted().location(URI.create("/students/writes/"+status.getRollNo())).body(status.getStudent());
+    }
+
+    public ResponseEntity<WriteStatus> getWriteStatus(int id){
+        WriteStatus status=studentWriteBehind==null ? null : studentWriteBehind.status(id);
+        return new ResponseEntity<>(status, status==null ? HttpStatus.NOT_FOUND : HttpStatus.OK);
+    }
+
+    @Transactional
+    public ResponseEntity<List<BatchItemResult>> createStudents(List<Student> students){
+        if(Objects.isNull(students) || students.size()>MAX_BATCH_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<BatchItemResult> results=new ArrayList<>(students.size());
+        List<Student> valid=new ArrayList<>(students.size());
+        for(int i=0;i<students.size();i++){
+            Student student=students.get(i);
+            if(isInvalid(student)){
+                results.add(BatchItemResult.failed(i, null, HttpStatus.BAD_REQUEST.value(), "name is required"));
+            }else{
+                student.setRollNo(0);
+                student.setVersion(0);
+                valid.add(student);
+                results.add(null);
+            }
+        }
+        //ids come from the pooled sequence, so the inserts are flushed as JDBC batches
+        List<Student> saved=studentRepository.saveAll(valid);
+        int next=0;
+        for(int i=0;i<results.size();i++){
+            if(results.get(i)==null) results.set(i, BatchItemResult.ok(i, HttpStatus.CREATED.value(), saved.get(next++)));
+        }
+        saved.forEach(student->eventPublisher.publishEvent(StudentChangedEvent.created(student)));
+        if(!saved.isEmpty()){
+            Set<String> branches=saved.stream().map(Student::getBranch).filter(Objects::nonNull).collect(Collectors.toSet());
+            afterCommit(()->studentCache.del(CacheKeys.stale(List.of(), branches)));
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @Transactional
+    public ResponseEntity<List<BatchItemResult>> updateStudents(List<Student> students){
+        if(Objects.isNull(students) || students.size()>MAX_BATCH_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        List<Integer> ids=students.stream().filter(Objects::nonNull).map(Student::getRollNo).toList();
+        Map<Integer, Student> existing=studentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Student::getRollNo, Function.identity()));
+        List<BatchItemResult> results=new ArrayList<>(students.size());
+        List<Integer> updated=new ArrayList<>();
+        Set<String> branches=new HashSet<>();
+        for(int i=0;i<students.size();i++){
+            Student student=students.get(i);
+            if(isInvalid(student)){
+                results.add(BatchItemResult.failed(i, student==null ? null : student.getRollNo(), HttpStatus.BAD_REQUEST.value(), "name is required"));
+                continue;
+            }
+            Student current=existing.get(student.getRollNo());
+            if(current==null){
+                results.add(BatchItemResult.failed(i, student.getRollNo(), HttpStatus.NOT_FOUND.value(), "student not found"));
+                continue;
+            }
+            //managed entities, dirty checking turns these into batched UPDATEs at commit; each checks and bumps the version
+            branches.addAll(branches(current.getBranch(), student.getBranch()));
+            Student before=new Student(current.getRollNo(), current.getName(), current.getPercentage(), current.getBranch(), current.getVersion());
+            current.setName(student.getName());
+            current.setPercentage(student.getPercentage());
+            current.setBranch(student.getBranch());
+            updated.add(current.getRollNo());
+            eventPublisher.publishEvent(StudentChangedEvent.updated(before, current));
+            results.add(BatchItemResult.ok(i, HttpStatus.OK.value(), current));
+        }
+        if(!updated.isEmpty()) afterCommit(()->invalidate(updated, branches));
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @Transactional
+    public ResponseEntity<List<BatchItemResult>> deleteStudents(List<Integer> ids){
+        if(Objects.isNull(ids) || ids.size()>MAX_BATCH_SIZE){
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        Map<Integer, Student> existing=studentRepository.findAllById(ids.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Student::getRollNo, Function.identity()));
+        List<BatchItemResult> results=new ArrayList<>(ids.size());
+        for(int i=0;i<ids.size();i++){
+            Student student=existing.get(ids.get(i));
+            results.add(student==null
+                    ? BatchItemResult.failed(i, ids.get(i), HttpStatus.NOT_FOUND.value(), "student not found")
+                    : BatchItemResult.ok(i, HttpStatus.GONE.value(), student));
+        }
+        if(!existing.isEmpty()){
+            List<Integer> deleted=new ArrayList<>(existing.keySet());
+            Set<String> branches=existing.values().stream().map(Student::getBranch).filter(Objects::nonNull).collect(Collectors.toSet());
+            studentRepository.deleteAllByIdInBatch(deleted);
+            existing.values().forEach(student->eventPublisher.publishEvent(StudentChangedEvent.deleted(student)));
+            afterCommit(()->invalidate(deleted, branches));
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    //one DEL for every affected Redis key, one PUBLISH for the near caches
+    private void invalidate(Collection<Integer> ids, Collection<String> branches){
+        studentCache.del(CacheKeys.stale(ids, branches));
+        studentNearCache.invalidateAll(ids);
+    }
+
+    private static List<String> branches(String... branches){
+        return Arrays.stream(branches).filter(Objects::nonNull).distinct().toList();
+    }
+
+    //cache invalidation must not run before the transaction is visible to other readers
+    private static void afterCommit(Runnable action){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                action.run();
+            }
+        });
+    }
+
+    private static boolean isInvalid(Student student){
+        return Objects.isNull(student) || student.getName()==null || student.getName().isBlank();
+    }
+
+}
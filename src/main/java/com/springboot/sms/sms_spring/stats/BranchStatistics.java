@@ -0,0 +1,68 @@
+package com.springboot.sms.sms_spring.stats;
+
+import com.springboot.sms.sms_spring.dto.BranchStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running statistics of one branch, updated with deltas. All counters are striped adders so concurrent
+ * writers never contend on a lock. Min and max have to survive removals, so every distinct percentage
+ * keeps its own count, dropped from the map when it reaches zero; the map is bounded by the number of distinct
+ * values currently held, not by the number of rows or by every value ever seen.
+ */
+class BranchStatistics {
+
+    static final int BUCKETS=10;
+
+    private final LongAdder count=new LongAdder();
+    private final DoubleAdder sum=new DoubleAdder();
+    private final LongAdder[] histogram=new LongAdder[BUCKETS];
+    private final ConcurrentSkipListMap<Float, Long> values=new ConcurrentSkipListMap<>();
+
+    BranchStatistics(){
+        for(int i=0;i<BUCKETS;i++) histogram[i]=new LongAdder();
+    }
+
+    void add(float percentage, long n){
+        if(Float.isNaN(percentage)) return;
+        count.add(n);
+        sum.add((double) percentage*n);
+        histogram[bucket(percentage)].add(n);
+        //a remove may arrive before its add, so a count can be negative for a moment; only zero is dropped
+        values.compute(percentage, (p, rows)->{
+            long next=(rows==null ? 0 : rows)+n;
+            return next==0 ? null : next;
+        });
+    }
+
+    void remove(float percentage){
+        add(percentage, -1);
+    }
+
+    BranchStats snapshot(String branch){
+        long rows=count.sum();
+        long[] buckets=new long[BUCKETS];
+        for(int i=0;i<BUCKETS;i++) buckets[i]=histogram[i].sum();
+        if(rows<=0) return new BranchStats(branch, 0, null, null, null, buckets);
+        return new BranchStats(branch, rows, sum.sum()/rows, first(values), first(values.descendingMap()), buckets);
+    }
+
+    boolean isEmpty(){
+        return count.sum()<=0;
+    }
+
+    //skips the values whose remove arrived before their add
+    private static Float first(Map<Float, Long> values){
+        for(Map.Entry<Float, Long> entry:values.entrySet()){
+            if(entry.getValue()>0) return entry.getKey();
+        }
+        return null;
+    }
+
+    static int bucket(float percentage){
+        return Math.max(0, Math.min(BUCKETS-1, (int) (percentage/(100f/BUCKETS))));
+    }
+}
@@ -0,0 +1,87 @@
+package com.springboot.sms.sms_spring.stats;
+
+import com.springboot.sms.sms_spring.dto.BranchStats;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.PercentageCount;
+import com.springboot.sms.sms_spring.repository.ReactiveStudentRepository;
+import com.springboot.sms.sms_spring.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-branch count, mean, min, max and percentage histogram, kept in memory and updated from
+ * {@link StudentChangedEvent}s once the write has committed. Reading is independent of the table size.
+ * The state is rebuilt from one GROUP BY query at startup (see StartupWarmup) and periodically after that, which also folds in
+ * writes made by other nodes.
+ */
+@Component
+public class StudentStatistics {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentStatistics.class);
+
+    //JPA on servlet nodes, R2DBC with the reactive profile
+    @Autowired(required = false)
+    private StudentRepository studentRepository;
+
+    @Autowired(required = false)
+    private ReactiveStudentRepository reactiveStudentRepository;
+
+    private volatile ConcurrentMap<String, BranchStatistics> branches=new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event){
+        Student before=event.before();
+        Student after=event.after();
+        if(before!=null && before.getBranch()!=null) branch(before.getBranch()).remove(before.getPercentage());
+        if(after!=null && after.getBranch()!=null) branch(after.getBranch()).add(after.getPercentage(), 1);
+    }
+
+    public List<BranchStats> getAll(){
+        return branches.entrySet().stream()
+                .filter(e->!e.getValue().isEmpty())
+                .map(e->e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparing(BranchStats::getBranch))
+                .toList();
+    }
+
+    public BranchStats get(String branch){
+        BranchStatistics statistics=branches.get(branch);
+        return statistics==null || statistics.isEmpty() ? null : statistics.snapshot(branch);
+    }
+
+    /**
+     * Recomputes everything from the database and swaps it in. Writes committing while the query runs
+     * may be missed or counted twice until the next rebuild.
+     */
+    @Scheduled(initialDelayString = "${sms.stats.rebuild-interval-millis:300000}",
+            fixedDelayString = "${sms.stats.rebuild-interval-millis:300000}")
+    public void rebuild(){
+        try{
+            ConcurrentMap<String, BranchStatistics> rebuilt=new ConcurrentHashMap<>();
+            //runs on the startup or scheduler thread, never on an event loop, so the reactive query may block
+            List<PercentageCount> rows=studentRepository!=null
+                    ? studentRepository.countByBranchAndPercentage()
+                    : reactiveStudentRepository.countByBranchAndPercentage().collectList().block();
+            for(PercentageCount row:rows){
+                rebuilt.computeIfAbsent(row.getBranch(), b->new BranchStatistics()).add(row.getPercentage(), row.getCount());
+            }
+            branches=rebuilt;
+        }catch (RuntimeException e){
+            log.warn("Could not rebuild branch statistics: {}", e.getMessage());
+        }
+    }
+
+    private BranchStatistics branch(String branch){
+        return branches.computeIfAbsent(branch, b->new BranchStatistics());
+    }
+}
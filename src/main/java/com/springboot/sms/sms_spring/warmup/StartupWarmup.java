@@ -0,0 +1,55 @@
+package com.springboot.sms.sms_spring.warmup;
+
+import com.springboot.sms.sms_spring.analytics.StudentAnalytics;
+import com.springboot.sms.sms_spring.search.StudentNameIndex;
+import com.springboot.sms.sms_spring.stats.StudentStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Work that has to be done before the node takes traffic. SpringApplication calls runners once the context
+ * and the web server are up but before it marks the application ready, so the readiness probe keeps failing
+ * until this returns. The statistics rebuild, the name index build, the analytics snapshot load and the cache
+ * warm-up query the database independently and run side by side, startup waits for the slowest of them instead
+ * of all in turn.
+ */
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log=LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    //absent with the reactive profile
+    @Autowired(required = false)
+    private StudentCacheWarmer studentCacheWarmer;
+
+    @Autowired(required = false)
+    private StudentNameIndex studentNameIndex;
+
+    @Autowired(required = false)
+    private StudentAnalytics studentAnalytics;
+
+    @Override
+    public void run(ApplicationArguments args){
+        long start=System.nanoTime();
+        CompletableFuture<Void> statistics=CompletableFuture.runAsync(studentStatistics::rebuild,
+                task->Thread.ofPlatform().name("statistics-rebuild").start(task));
+        CompletableFuture<Void> nameIndex=studentNameIndex==null ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(studentNameIndex::rebuild, task->Thread.ofPlatform().name("name-index-build").start(task));
+        CompletableFuture<Void> analytics=studentAnalytics==null ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(studentAnalytics::rebuild, task->Thread.ofPlatform().name("analytics-load").start(task));
+        int warmed=studentCacheWarmer==null ? 0 : studentCacheWarmer.warm();
+        statistics.join();
+        nameIndex.join();
+        analytics.join();
+        log.info("Startup warm-up done in {} ms, {} students cached", (System.nanoTime()-start)/1_000_000, warmed);
+    }
+}
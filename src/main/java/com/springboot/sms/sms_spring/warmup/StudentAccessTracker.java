@@ -0,0 +1,118 @@
+package com.springboot.sms.sms_spring.warmup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts reads per roll number so the next start knows which {@code students<id>} keys to warm.
+ * The tracked ids are bounded by a Caffeine cache, whose frequency based admission keeps rarely read ids
+ * from displacing hot ones. Counts are saved to a local file periodically and on shutdown, and halved
+ * (rounding up) when they are read back so that old popularity fades over restarts.
+ * <pre>
+ * file := magic:"SMSH" version:u8 count:i32 (rollNo:i32 reads:i64)*
+ * </pre>
+ */
+@Component
+@Profile("!reactive")
+public class StudentAccessTracker {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentAccessTracker.class);
+    private static final int MAGIC=0x534D5348;
+    private static final byte VERSION=1;
+
+    @Value("${sms.warmup.file:${java.io.tmpdir}/sms-hot-students.bin}")
+    private Path file;
+
+    @Value("${sms.warmup.tracked-ids:100000}")
+    private int trackedIds=100000;
+
+    private Cache<Integer, LongAdder> reads;
+
+    @PostConstruct
+    void init(){
+        reads=Caffeine.newBuilder().maximumSize(trackedIds).build();
+        restore();
+    }
+
+    public void record(int rollNo){
+        reads.get(rollNo, id->new LongAdder()).increment();
+    }
+
+    //most read ids first
+    public List<Integer> hottest(int limit){
+        return reads.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Integer, LongAdder> e)->e.getValue().sum()).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @PreDestroy
+    void stop(){
+        save();
+    }
+
+    //written next to the target and renamed over it, a crash mid-write leaves the previous snapshot intact
+    @Scheduled(initialDelayString = "${sms.warmup.save-interval-millis:300000}",
+            fixedDelayString = "${sms.warmup.save-interval-millis:300000}")
+    public synchronized void save(){
+        Map<Integer, LongAdder> snapshot=Map.copyOf(reads.asMap());
+        Path part=file.resolveSibling(file.getFileName()+".part");
+        try{
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try(DataOutputStream out=new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(part)))){
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(snapshot.size());
+                for(Map.Entry<Integer, LongAdder> entry:snapshot.entrySet()){
+                    out.writeInt(entry.getKey());
+                    out.writeLong(entry.getValue().sum());
+                }
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }catch (IOException e){
+            log.warn("Could not save student access counts to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void restore(){
+        if(!Files.exists(file)) return;
+        try(DataInputStream in=new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+            if(in.readInt()!=MAGIC || in.readByte()!=VERSION){
+                log.warn("Ignoring {}, not a student access snapshot", file);
+                return;
+            }
+            int count=in.readInt();
+            for(int i=0;i<count;i++){
+                int rollNo=in.readInt();
+                long halved=(in.readLong()+1)/2;
+                LongAdder adder=new LongAdder();
+                adder.add(halved);
+                reads.put(rollNo, adder);
+            }
+        }catch (IOException e){
+            log.warn("Could not read student access counts from {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.springboot.sms.sms_spring.warmup;
+
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.ETags;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Loads the students read most before the last shutdown into Redis and the near cache. The ids are split
+ * into batches that are read with one findAllById and written with one pipelined SETEX each, several
+ * batches at a time. Whatever is not done by the deadline is left to the normal cache-aside path.
+ */
+@Component
+@Profile("!reactive")
+public class StudentCacheWarmer {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentCacheWarmer.class);
+
+    @Autowired
+    private StudentAccessTracker studentAccessTracker;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private StudentNearCache studentNearCache;
+
+    @Autowired
+    private CacheCodec cacheCodec;
+
+    @Value("${sms.warmup.enabled:true}")
+    private boolean enabled=true;
+
+    @Value("${sms.warmup.max-entries:10000}")
+    private int maxEntries=10000;
+
+    @Value("${sms.warmup.batch-size:500}")
+    private int batchSize=500;
+
+    //kept below the Hikari pool size, request threads still need connections while this runs
+    @Value("${sms.warmup.parallelism:4}")
+    private int parallelism=4;
+
+    @Value("${sms.warmup.timeout-millis:30000}")
+    private long timeoutMillis=30000;
+
+    @Value("${sms.cache.ttl-seconds:5}")
+    private long ttlSeconds=5;
+
+    //number of students written to the caches
+    public int warm(){
+        if(!enabled) return 0;
+        List<Integer> ids=studentAccessTracker.hottest(maxEntries);
+        if(ids.isEmpty()) return 0;
+        List<List<Integer>> batches=new ArrayList<>();
+        for(int i=0;i<ids.size();i+=batchSize){
+            batches.add(ids.subList(i, Math.min(i+batchSize, ids.size())));
+        }
+        ExecutorService executor=Executors.newFixedThreadPool(Math.min(parallelism, batches.size()));
+        try{
+            List<Future<Integer>> results=new ArrayList<>();
+            for(List<Integer> batch:batches) results.add(executor.submit(()->warmBatch(batch)));
+            long deadline=System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            int warmed=0;
+            for(Future<Integer> result:results){
+                warmed+=result.get(Math.max(0, deadline-System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            return warmed;
+        }catch (TimeoutException e){
+            log.warn("Cache warm-up did not finish within {} ms, continuing without it", timeoutMillis);
+        }catch (ExecutionException e){
+            log.warn("Cache warm-up failed: {}", e.getCause().getMessage());
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }finally{
+            executor.shutdownNow();
+        }
+        return 0;
+    }
+
+    private int warmBatch(List<Integer> ids){
+        Map<String, byte[]> values=new HashMap<>();
+        for(Student student:studentRepository.findAllById(ids)){
+            values.put(CacheKeys.student(student.getRollNo()), cacheCodec.encode(student));
+            values.put(CacheKeys.etag(CacheKeys.student(student.getRollNo())), ETags.encode(ETags.of(student)));
+            studentNearCache.put(student);
+        }
+        studentCache.setexAll(values, ttlSeconds);
+        return values.size()/2;
+    }
+}
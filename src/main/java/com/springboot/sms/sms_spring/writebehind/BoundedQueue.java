@@ -0,0 +1,58 @@
+package com.springboot.sms.sms_spring.writebehind;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free multi-producer queue with a capacity. A producer first {@link #reserve reserves} a slot with a CAS on
+ * the counter, so a full queue is detected without blocking, and then {@link #add adds} into it.
+ */
+class BoundedQueue<T> {
+
+    private final ConcurrentLinkedQueue<T> queue=new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size=new AtomicInteger();
+    private final int capacity;
+
+    BoundedQueue(int capacity){
+        this.capacity=capacity;
+    }
+
+    boolean reserve(){
+        while(true){
+            int current=size.get();
+            if(current>=capacity) return false;
+            if(size.compareAndSet(current, current+1)) return true;
+        }
+    }
+
+    //gives back a reserved slot that will not be used
+    void cancel(){
+        size.decrementAndGet();
+    }
+
+    void add(T element){
+        queue.add(element);
+    }
+
+    //elements queued while starting up, before producers are let in; they may go past the capacity
+    void addUnreserved(T element){
+        size.incrementAndGet();
+        queue.add(element);
+    }
+
+    int drainTo(List<T> target, int max){
+        int n=0;
+        T element;
+        while(n<max && (element=queue.poll())!=null){
+            target.add(element);
+            n++;
+        }
+        size.addAndGet(-n);
+        return n;
+    }
+
+    int size(){
+        return size.get();
+    }
+}
@@ -0,0 +1,338 @@
+package com.springboot.sms.sms_spring.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springboot.sms.sms_spring.cache.CacheKeys;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.dto.WriteStatus;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentCopyRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous creates, switched on with {@code sms.write-behind.enabled=true}. An accepted student gets its
+ * roll number (from a locally held block of the sequence), is appended to the {@link WriteJournal} and put on a
+ * bounded lock-free queue; the caller is answered right away. One writer thread drains the queue into batches of up
+ * to {@code batch-size} and inserts each batch in one transaction, so a whole batch shares one commit. While a batch
+ * commits the next one fills up, throughput grows with the batch size rather than with commit latency.
+ * <p>
+ * A batch rejected by the database itself (a constraint, bad data) is narrowed down by inserting its students one
+ * by one; the ones that are still rejected are reported as FAILED. Any other failure, an unreachable database or a
+ * failed commit alike, is retried until it goes through: the insert skips rows already present, so a batch that did
+ * commit after all is harmless to repeat. A batch only leaves the writer once the journal records it written, the
+ * journal is never truncated under it. Creates left in the journal by a stop or a crash are written first after
+ * the next start.
+ * <p>
+ * Roll numbers come in blocks from the sequence. The writer fetches the next block while the current one is
+ * being handed out, so a request only queries the database when creates outrun it. Nothing on the request path
+ * blocks inside a monitor, a virtual thread never pins its carrier here.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "sms.write-behind.enabled", havingValue = "true")
+public class StudentWriteBehind {
+
+    private static final Logger log=LoggerFactory.getLogger(StudentWriteBehind.class);
+
+    //allocationSize of the entity's pooled sequence, one nextval per block
+    private static final int ID_BLOCK=50;
+    private static final long IDLE_PARK_NANOS=TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Autowired
+    private StudentCopyRepository studentCopyRepository;
+
+    @Autowired
+    private StudentCache studentCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sms.write-behind.capacity:10000}")
+    private int capacity=10000;
+
+    @Value("${sms.write-behind.batch-size:500}")
+    private int batchSize=500;
+
+    //how long a partial batch waits for company before it is written
+    @Value("${sms.write-behind.linger-millis:2}")
+    private long lingerMillis=2;
+
+    @Value("${sms.write-behind.retry-millis:1000}")
+    private long retryMillis=1000;
+
+    //required, on storage that outlives the process and the container; never a tmpfs
+    @Value("${sms.write-behind.journal:}")
+    private String journalFile;
+
+    //without it an acknowledged create survives a crash of the process but not one of the host
+    @Value("${sms.write-behind.fsync:false}")
+    private boolean fsync;
+
+    @Value("${sms.write-behind.status-retention-seconds:600}")
+    private long statusRetentionSeconds=600;
+
+    private BoundedQueue<Student> queue;
+    private WriteJournal journal;
+    private Cache<Integer, WriteStatus> statuses;
+    private DistributionSummary batchSizes;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final ReentrantLock idLock=new ReentrantLock();
+    private int[] ids=new int[0];
+    private int nextId;
+    //the block after ids, fetched ahead by the writer
+    private volatile int[] spareIds;
+    private long prefetchRetryAt=System.nanoTime();
+
+    @PostConstruct
+    void start() throws IOException {
+        if(journalFile==null || journalFile.isBlank()){
+            throw new IllegalStateException("sms.write-behind.journal must name a file on persistent storage " +
+                    "when sms.write-behind.enabled=true");
+        }
+        queue=new BoundedQueue<>(capacity);
+        statuses=Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(statusRetentionSeconds)).build();
+        journal=new WriteJournal(Path.of(journalFile), fsync);
+        List<Student> outstanding=journal.outstanding();
+        for(Student student:outstanding){
+            queue.addUnreserved(student);
+            statuses.put(student.getRollNo(), new WriteStatus(student.getRollNo(), WriteStatus.State.PENDING, null, student));
+        }
+        if(!outstanding.isEmpty()) log.info("Replaying {} creates left in the write-behind journal", outstanding.size());
+        Gauge.builder("sms.write-behind.queue", queue, BoundedQueue::size)
+                .description("Creates accepted and not yet written").register(meterRegistry);
+        batchSizes=DistributionSummary.builder("sms.write-behind.batch")
+                .description("Students per group commit").register(meterRegistry);
+        running=true;
+        writer=new Thread(this::run, "student-write-behind");
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running=false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        //a writer still retrying leaves its batch in the journal for the next start
+        if(!writer.isAlive()) journal.close();
+    }
+
+    /**
+     * Queues the student and returns its PENDING status, or null when the queue is full.
+     *
+     * @throws IOException when the journal cannot be written, nothing was queued then
+     */
+    public WriteStatus accept(Student student) throws IOException {
+        if(!running || !queue.reserve()) return null;
+        try{
+            student.setRollNo(nextRollNo());
+            student.setVersion(0);
+            journal.accepted(student);
+        }catch (IOException | RuntimeException e){
+            queue.cancel();
+            throw e;
+        }
+        WriteStatus status=new WriteStatus(student.getRollNo(), WriteStatus.State.PENDING, null, student);
+        statuses.put(student.getRollNo(), status);
+        queue.add(student);
+        LockSupport.unpark(writer);
+        return status;
+    }
+
+    //null once the status has expired, or for a roll number this node never accepted
+    public WriteStatus status(int rollNo){
+        return statuses.getIfPresent(rollNo);
+    }
+
+    private int nextRollNo(){
+        idLock.lock();
+        try{
+            if(nextId==ids.length){
+                int[] spare=spareIds;
+                //only when creates outran the writer's prefetch
+                ids=spare!=null ? spare : studentCopyRepository.nextIds(ID_BLOCK);
+                spareIds=null;
+                nextId=0;
+                LockSupport.unpark(writer);
+            }
+            return ids[nextId++];
+        }finally{
+            idLock.unlock();
+        }
+    }
+
+    //runs on the writer thread, keeps one block in reserve
+    private void prefetchIds(){
+        if(spareIds!=null || System.nanoTime()-prefetchRetryAt<0) return;
+        int[] block;
+        try{
+            block=studentCopyRepository.nextIds(ID_BLOCK);
+        }catch (RuntimeException e){
+            prefetchRetryAt=System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(retryMillis);
+            log.warn("Could not fetch the next block of roll numbers: {}", e.getMessage());
+            return;
+        }
+        idLock.lock();
+        try{
+            spareIds=block;
+        }finally{
+            idLock.unlock();
+        }
+    }
+
+    private void run(){
+        List<Student> batch=new ArrayList<>(batchSize);
+        boolean idle=false;
+        while(running || queue.size()>0){
+            if(running) prefetchIds();
+            queue.drainTo(batch, batchSize-batch.size());
+            if(batch.isEmpty()){
+                if(!idle) idle=truncateJournal();
+                if(!running) break;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            idle=false;
+            long deadline=System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+            while(batch.size()<batchSize && running){
+                long left=deadline-System.nanoTime();
+                if(left<=0) break;
+                LockSupport.parkNanos(left);
+                queue.drainTo(batch, batchSize-batch.size());
+            }
+            try{
+                if(!write(batch)) return;
+            }catch (RuntimeException e){
+                //not recorded as written, keep the batch so the journal is not truncated under it
+                log.error("Write-behind batch of {} could not be completed, retrying", batch.size(), e);
+                if(!running) return;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMillis));
+                continue;
+            }
+            batch.clear();
+        }
+    }
+
+    //false when stopped before the batch was written
+    private boolean write(List<Student> batch){
+        while(true){
+            try{
+                studentCopyRepository.insert(batch);
+                written(batch, List.of());
+                return true;
+            }catch (RuntimeException e){
+                if(rejected(e)) return writeOneByOne(batch);
+                if(!retry(batch.size(), e)) return false;
+            }
+        }
+    }
+
+    private boolean writeOneByOne(List<Student> batch){
+        List<Student> ok=new ArrayList<>(batch.size());
+        List<Student> failed=new ArrayList<>();
+        for(Student student:batch){
+            while(true){
+                try{
+                    studentCopyRepository.insert(List.of(student));
+                    ok.add(student);
+                    break;
+                }catch (RuntimeException e){
+                    if(rejected(e)){
+                        failed.add(student);
+                        statuses.put(student.getRollNo(), new WriteStatus(student.getRollNo(), WriteStatus.State.FAILED,
+                                message(e), student));
+                        break;
+                    }
+                    if(!retry(1, e)){
+                        //the rest stays in the journal for the next start
+                        written(ok, failed);
+                        return false;
+                    }
+                }
+            }
+        }
+        written(ok, failed);
+        return true;
+    }
+
+    //refused by the database for these rows, repeating the insert cannot help
+    private static boolean rejected(RuntimeException e){
+        return e instanceof NonTransientDataAccessException && !(e instanceof NonTransientDataAccessResourceException);
+    }
+
+    //waits before the next attempt, false when stopped meanwhile
+    private boolean retry(int students, RuntimeException e){
+        if(!running) return false;
+        log.warn("Write-behind insert of {} failed, retrying: {}", students, e.getMessage());
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryMillis));
+        return running;
+    }
+
+    private static String message(RuntimeException e){
+        return e instanceof NonTransientDataAccessException dae ? dae.getMostSpecificCause().getMessage() : e.getMessage();
+    }
+
+    private void written(List<Student> ok, List<Student> failed){
+        if(ok.isEmpty() && failed.isEmpty()) return;
+        batchSizes.record(ok.size());
+        try{
+            List<Student> done=new ArrayList<>(ok);
+            done.addAll(failed);
+            journal.written(done);
+        }catch (IOException e){
+            //replaying them is harmless, rows already present are skipped
+            log.warn("Could not record written creates in the journal: {}", e.getMessage());
+        }
+        Set<String> branches=new HashSet<>();
+        for(Student student:ok){
+            statuses.put(student.getRollNo(), new WriteStatus(student.getRollNo(), WriteStatus.State.WRITTEN, null, student));
+            if(student.getBranch()!=null) branches.add(student.getBranch());
+        }
+        try{
+            for(Student student:ok) eventPublisher.publishEvent(StudentChangedEvent.created(student));
+            if(!ok.isEmpty()) studentCache.del(CacheKeys.stale(List.of(), branches));
+        }catch (RuntimeException e){
+            //the rows are in and recorded, only derived state lags until its next rebuild
+            log.warn("Could not announce {} written creates: {}", ok.size(), e.getMessage());
+        }
+    }
+
+    private boolean truncateJournal(){
+        try{
+            return journal.truncateIf(()->queue.size()==0);
+        }catch (IOException e){
+            log.warn("Could not truncate the write-behind journal: {}", e.getMessage());
+            return false;
+        }
+    }
+}
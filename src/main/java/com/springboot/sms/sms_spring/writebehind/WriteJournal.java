@@ -0,0 +1,137 @@
+package com.springboot.sms.sms_spring.writebehind;
+
+import com.springboot.sms.sms_spring.entity.Student;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Append-only file of the accepted creates that may not be in the database yet.
+ * <pre>
+ * record  := 'W' rollNo:i32 hasName:u8 [name:utf] percentage:f32 hasBranch:u8 [branch:utf]   accepted
+ *          | 'C' count:i32 rollNo:i32*                                                      written (or given up on)
+ * </pre>
+ * Every record reaches the file before the create is acknowledged, so a restarted process replays whatever has no
+ * 'C' record. A record cut short by a crash ends the replay. Once nothing is outstanding the file is truncated.
+ * With {@code fsync} every append is also forced to the device, which makes acknowledged creates survive
+ * a crash of the machine, not just of the process. Appends are serialized by a {@link ReentrantLock} rather than a
+ * monitor, a virtual thread blocked in the write or the fsync unmounts instead of pinning its carrier.
+ */
+class WriteJournal implements AutoCloseable {
+
+    private static final byte WRITE='W';
+    private static final byte COMMIT='C';
+
+    private final Path file;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final ReentrantLock lock=new ReentrantLock();
+
+    WriteJournal(Path file, boolean fsync) throws IOException {
+        this.file=file;
+        this.fsync=fsync;
+        if(file.getParent()!=null) Files.createDirectories(file.getParent());
+        channel=FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Students with a 'W' and no 'C' record, in the order they were accepted.
+     */
+    List<Student> outstanding() throws IOException {
+        Map<Integer, Student> pending=new LinkedHashMap<>();
+        try(InputStream in=new BufferedInputStream(Files.newInputStream(file))){
+            DataInputStream data=new DataInputStream(in);
+            while(true){
+                int type=data.read();
+                if(type==WRITE){
+                    int rollNo=data.readInt();
+                    String name=data.readBoolean() ? data.readUTF() : null;
+                    float percentage=data.readFloat();
+                    String branch=data.readBoolean() ? data.readUTF() : null;
+                    pending.put(rollNo, new Student(rollNo, name, percentage, branch));
+                }else if(type==COMMIT){
+                    int count=data.readInt();
+                    for(int i=0;i<count;i++) pending.remove(data.readInt());
+                }else{
+                    break;
+                }
+            }
+        }catch (EOFException e){
+            //torn last record, it was never acknowledged
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    void accepted(Student student) throws IOException {
+        ByteArrayOutputStream bytes=new ByteArrayOutputStream(64);
+        DataOutputStream out=new DataOutputStream(bytes);
+        out.writeByte(WRITE);
+        out.writeInt(student.getRollNo());
+        out.writeBoolean(student.getName()!=null);
+        if(student.getName()!=null) out.writeUTF(student.getName());
+        out.writeFloat(student.getPercentage());
+        out.writeBoolean(student.getBranch()!=null);
+        if(student.getBranch()!=null) out.writeUTF(student.getBranch());
+        append(bytes.toByteArray());
+    }
+
+    void written(Collection<Student> students) throws IOException {
+        ByteBuffer buffer=ByteBuffer.allocate(5+4*students.size());
+        buffer.put(COMMIT).putInt(students.size());
+        for(Student student:students) buffer.putInt(student.getRollNo());
+        append(buffer.array());
+    }
+
+    /**
+     * Empties the file if {@code idle} holds. The check runs under the same lock as appends, so a producer
+     * that reserved its queue slot before the check is seen by it, and one that reserves after appends to the emptied file.
+     */
+    boolean truncateIf(BooleanSupplier idle) throws IOException {
+        lock.lock();
+        try{
+            if(!idle.getAsBoolean()) return false;
+            channel.truncate(0);
+            return true;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try{
+            channel.close();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    private void append(byte[] record) throws IOException {
+        lock.lock();
+        try{
+            ByteBuffer buffer=ByteBuffer.wrap(record);
+            while(buffer.hasRemaining()) channel.write(buffer);
+            if(fsync) channel.force(false);
+        }finally{
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Runs after Hibernate's ddl update (spring.jpa.defer-datasource-initialization=true).
+-- Moves student_seq past the rows inserted while roll_no was an identity column.
+CREATE SEQUENCE IF NOT EXISTS student_seq INCREMENT BY 50;
+SELECT setval('student_seq', GREATEST((SELECT COALESCE(MAX(roll_no), 0) + 50 FROM student), (SELECT last_value FROM student_seq)));
@@ -0,0 +1,81 @@
+package com.springboot.sms.sms_spring.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    @Test
+    void rejectsOnceTheLimitIsInUse() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 2.0);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(FAST, false);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyStaysNearTheBaseline() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, 2.0);
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(FAST, false);
+            limit.release(FAST, false);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(2);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 10, 2.0);
+        for (int i = 0; i < 100; i++) { // One full window settles the baseline
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        for (int i = 0; i < 40; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(2); // never below the minimum
+    }
+
+    @Test
+    void aFewFastAnswersDoNotCollapseTheLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(20, 2, 200, 2.0);
+        long fastest = Duration.ofNanos(50_000).toNanos(); // As fast as a cache hit
+        int lowest = limit.getLimit();
+
+        for (int i = 0; i < 2000; i++) {
+            limit.tryAcquire();
+            limit.release(i % 20 == 19 ? fastest : i % 2 == 0 ? Duration.ofMillis(4).toNanos() : Duration.ofMillis(6).toNanos(), false);
+            lowest = Math.min(lowest, limit.getLimit());
+        }
+
+        assertThat(lowest).isEqualTo(20);
+    }
+
+    @Test
+    void overloadedRequestsShrinkTheLimitWhateverTheirLatency() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 10, 2.0);
+
+        limit.tryAcquire();
+        limit.release(FAST, true);
+
+        assertThat(limit.getLimit()).isEqualTo(9);
+        assertThat(limit.getInFlight()).isZero();
+    }
+}
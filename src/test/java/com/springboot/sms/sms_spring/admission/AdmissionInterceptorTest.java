@@ -0,0 +1,133 @@
+package com.springboot.sms.sms_spring.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.entity.Student;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StudentNearCache studentNearCache = mock(StudentNearCache.class);
+    private final AdmissionGate admissionGate = new AdmissionGate();
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(admissionGate, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(interceptor, "admissionGate", admissionGate);
+        ReflectionTestUtils.setField(interceptor, "studentCache", mock(StudentCache.class));
+        ReflectionTestUtils.setField(interceptor, "studentNearCache", studentNearCache);
+        ReflectionTestUtils.setField(interceptor, "cacheCodec", mock(CacheCodec.class));
+        ReflectionTestUtils.setField(interceptor, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void handlersOwnServiceUnavailableDoesNotShrinkTheLimit() throws Exception {
+        HandlerMethod handler = handler("createStudent");
+        for (int i = 0; i < 50; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/students");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(request, response, handler)).isTrue();
+            // What a full write-behind queue answers
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+
+        assertThat(meterRegistry.get("sms.admission.limit").tag("endpoint", "createStudent").gauge().value())
+                .isEqualTo(20);
+        assertThat(meterRegistry.get("sms.admission.in-flight").tag("endpoint", "createStudent").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void failedRequestStillShrinksTheLimit() throws Exception {
+        HandlerMethod handler = handler("createStudent");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/students");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        DatabaseAccess.connected(); // What borrowing a connection does
+        response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(meterRegistry.get("sms.admission.limit").tag("endpoint", "createStudent").gauge().value())
+                .isEqualTo(18);
+    }
+
+    @Test
+    void requestsAnsweredFromTheCacheAreNotTimed() throws Exception {
+        HandlerMethod handler = handler("getStudent");
+        for (int i = 0; i < 50; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students/7");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            interceptor.preHandle(request, response, handler);
+            // A failure without a connection borrowed says nothing about the database either
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+
+        assertThat(meterRegistry.get("sms.admission.limit").tag("endpoint", "getStudent").gauge().value())
+                .isEqualTo(20);
+        assertThat(meterRegistry.get("sms.admission.in-flight").tag("endpoint", "getStudent").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void cachedReadAnswersAMatchingIfNoneMatchWithNotModified() throws Exception {
+        ReflectionTestUtils.setField(admissionGate, "maxConcurrency", 0); // Every request is turned away
+        Student student = new Student(7, "Alice", 91.5f, "CSE");
+        student.setVersion(3);
+        when(studentNearCache.get(7)).thenReturn(student);
+
+        MockHttpServletResponse matching = getStudent(7, "\"3\"");
+        assertThat(matching.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(matching.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        assertThat(matching.getContentLength()).isZero();
+
+        MockHttpServletResponse outdated = getStudent(7, "\"2\"");
+        assertThat(outdated.getStatus()).isEqualTo(HttpStatus.FOUND.value());
+        assertThat(outdated.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        assertThat(outdated.getContentAsString()).contains("Alice");
+    }
+
+    private MockHttpServletResponse getStudent(int id, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students/" + id);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", Integer.toString(id)));
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request, response, handler("getStudent"))).isFalse();
+        return response;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), name);
+    }
+
+    // Stands in for the controller, the interceptor only looks at the method name
+    static class Endpoints {
+        public void createStudent() {
+        }
+
+        public void getStudent() {
+        }
+    }
+}
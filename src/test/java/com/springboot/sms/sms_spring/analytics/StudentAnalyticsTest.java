@@ -0,0 +1,78 @@
+package com.springboot.sms.sms_spring.analytics;
+
+import com.springboot.sms.sms_spring.dto.PercentileStats;
+import com.springboot.sms.sms_spring.dto.StudentRank;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class StudentAnalyticsTest {
+
+    @Mock
+    private StudentExportRepository studentExportRepository;
+
+    @InjectMocks
+    private StudentAnalytics studentAnalytics;
+
+    @BeforeEach
+    void setUp() {
+        studentAnalytics.start();
+        for (int i = 1; i <= 10; i++) {
+            studentAnalytics.onStudentChanged(StudentChangedEvent.created(new Student(i, "s" + i, i * 10.0f, i % 2 == 0 ? "CS" : "EE")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentAnalytics.stop();
+    }
+
+    @Test
+    void nearestRankPercentiles() {
+        PercentileStats all = studentAnalytics.percentiles(null, new double[]{10, 50, 95, 100});
+        assertThat(all.getCount()).isEqualTo(10);
+        assertThat(all.getValues()).containsExactly(10f, 50f, 100f, 100f);
+
+        PercentileStats cs = studentAnalytics.percentiles("CS", new double[]{50});
+        assertThat(cs.getCount()).isEqualTo(5);
+        assertThat(cs.getValues()).containsExactly(60f);
+
+        assertThat(studentAnalytics.percentiles("ME", new double[]{50}).getCount()).isZero();
+    }
+
+    @Test
+    void ranksWithinBranchOrOverall() {
+        StudentRank inBranch = studentAnalytics.rank(6, true);
+        assertThat(inBranch.getBranch()).isEqualTo("CS");
+        assertThat(inBranch.getRank()).isEqualTo(3);
+        assertThat(inBranch.getTotal()).isEqualTo(5);
+
+        StudentRank overall = studentAnalytics.rank(6, false);
+        assertThat(overall.getRank()).isEqualTo(5);
+        assertThat(overall.getTotal()).isEqualTo(10);
+
+        assertThat(studentAnalytics.rank(99, false)).isNull();
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        Student before = new Student(10, "s10", 100f, "CS");
+        studentAnalytics.onStudentChanged(StudentChangedEvent.updated(before, new Student(10, "s10", 5f, "CS")));
+        studentAnalytics.onStudentChanged(StudentChangedEvent.deleted(new Student(8, "s8", 80f, "CS")));
+
+        assertThat(studentAnalytics.rank(8, false)).isNull();
+        assertThat(studentAnalytics.rank(10, true).getRank()).isEqualTo(4);
+        assertThat(studentAnalytics.size()).isEqualTo(9);
+        assertThat(studentAnalytics.percentiles(null, new double[]{100}).getValues()).containsExactly(90f);
+    }
+}
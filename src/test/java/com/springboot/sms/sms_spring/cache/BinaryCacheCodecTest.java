@@ -0,0 +1,74 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
+import com.springboot.sms.sms_spring.entity.Student;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCacheCodecTest {
+
+    private static final Type STUDENT_LIST = new TypeToken<List<Student>>() {}.getType();
+
+    private final BinaryCacheCodec codec = new BinaryCacheCodec();
+
+    private final Student alice = new Student(1, "Alice", 90.5f, "CS");
+    private final Student bob = new Student(2, "Bøb", 85.0f, "CS", 300);
+    private final Student carol = new Student(3, null, 70.0f, null);
+
+    @Test
+    void roundTripsEveryCachedShape() {
+        List<Student> students = Arrays.asList(alice, bob, carol);
+
+        assertThat((Student) codec.decode(codec.encode(alice), Student.class)).isEqualTo(alice);
+        assertThat((List<Student>) codec.decode(codec.encode(students), STUDENT_LIST)).containsExactly(alice, bob, carol);
+        assertThat((StudentPage) codec.decode(codec.encode(new StudentPage(students, 3)), StudentPage.class))
+                .isEqualTo(new StudentPage(students, 3));
+        assertThat((StudentPage) codec.decode(codec.encode(new StudentPage(List.of(), null)), StudentPage.class))
+                .isEqualTo(new StudentPage(List.of(), null));
+        assertThat((StudentSlice) codec.decode(codec.encode(new StudentSlice(students, 2, 3, true)), StudentSlice.class))
+                .isEqualTo(new StudentSlice(students, 2, 3, true));
+    }
+
+    @Test
+    void valueOfAnotherTypeIsAMiss() {
+        List<Student> students = Arrays.asList(alice, bob);
+
+        assertThat((Student) codec.decode(codec.encode(students), Student.class)).isNull();
+        assertThat((List<Student>) codec.decode(codec.encode(alice), STUDENT_LIST)).isNull();
+        assertThat((StudentSlice) codec.decode(codec.encode(new StudentPage(students, 3)), StudentSlice.class)).isNull();
+        assertThat((StudentPage) codec.decode(codec.encode(new StudentSlice(students, 0, 2, false)), StudentPage.class))
+                .isNull();
+    }
+
+    @Test
+    void isSmallerThanJsonAndStoresEachBranchOnce() {
+        List<Student> students = Arrays.asList(alice, bob, alice, bob);
+
+        byte[] binary = codec.encode(students);
+
+        assertThat(binary[0]).isEqualTo(BinaryCacheCodec.VERSION);
+        assertThat(binary.length).isLessThan(new Gson().toJson(students).getBytes(StandardCharsets.UTF_8).length / 2);
+        assertThat(new String(binary, StandardCharsets.ISO_8859_1).split("CS", -1)).hasSize(2); // Dictionary entry only
+    }
+
+    @Test
+    void readsJsonWrittenBeforeTheRolloutAndRejectsUnknownVersions() {
+        byte[] json = new Gson().toJson(alice).getBytes(StandardCharsets.UTF_8);
+        byte[] future = codec.encode(alice);
+        future[0] = (byte) (BinaryCacheCodec.VERSION + 1);
+
+        assertThat((Student) codec.decode(json, Student.class)).isEqualTo(alice);
+        assertThat((Student) codec.decode(future, Student.class)).isNull(); // Treated as a cache miss
+        assertThat((Student) codec.decode(Arrays.copyOf(codec.encode(alice), 6), Student.class)).isNull(); // Truncated
+        assertThat((Student) codec.decode(null, Student.class)).isNull();
+    }
+}
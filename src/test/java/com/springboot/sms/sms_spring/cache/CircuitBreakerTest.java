@@ -0,0 +1,57 @@
+package com.springboot.sms.sms_spring.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMinutes(1), Duration.ofMillis(10));
+
+        breaker.recordSuccess(Duration.ofMillis(50).toNanos());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenTrialClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO, Duration.ofSeconds(1));
+        breaker.recordFailure();
+
+        assertThat(breaker.allowRequest()).isTrue(); // trial call
+        assertThat(breaker.allowRequest()).isFalse(); // only one trial at a time
+        breaker.recordSuccess(0);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void abandonedTrialIsHandedToTheNextCaller() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO, Duration.ofSeconds(1));
+        breaker.recordFailure();
+
+        assertThat(breaker.allowRequest()).isTrue(); // trial call, but no pooled connection was free
+        breaker.abandon();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+}
@@ -0,0 +1,36 @@
+package com.springboot.sms.sms_spring.cache;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    private final Student alice = new Student(1, "Alice", 90.5f, "CS", 2);
+    private final Student bob = new Student(2, "Bob", 85.0f, "EE", 0);
+
+    @Test
+    void listTagChangesWithEveryVersionAndMembershipChange() {
+        String tag = ETags.of(List.of(alice, bob));
+
+        assertThat(ETags.of(List.of(alice, bob))).isEqualTo(tag);
+        assertThat(ETags.of(List.of(alice, new Student(2, "Bob", 86.0f, "EE", 1)))).isNotEqualTo(tag); // Updated
+        assertThat(ETags.of(List.of(alice))).isNotEqualTo(tag); // Deleted
+        assertThat(ETags.of(List.of(alice, bob, new Student(3, "Carol", 70.0f, "ME")))).isNotEqualTo(tag); // Created
+    }
+
+    @Test
+    void comparesWeaklyForNoneMatchAndStronglyForMatch() {
+        assertThat(ETags.of(alice)).isEqualTo("\"2\"");
+        assertThat(ETags.noneMatchHit("\"1\", W/\"2\"", "\"2\"")).isTrue();
+        assertThat(ETags.noneMatchHit("*", "\"2\"")).isTrue();
+        assertThat(ETags.noneMatchHit("\"1\"", "\"2\"")).isFalse();
+        assertThat(ETags.noneMatchHit("\"1\"", null)).isFalse();
+
+        assertThat(ETags.versions("\"1\", W/\"2\", \"x\"")).containsExactly(1); // Weak and foreign tags never match
+        assertThat(ETags.versions("*")).isNull();
+    }
+}
@@ -0,0 +1,45 @@
+package com.springboot.sms.sms_spring.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaLagInvalidationTest {
+
+    private final ReplicaLagInvalidation replicaLagInvalidation = new ReplicaLagInvalidation();
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(replicaLagInvalidation, "stop");
+    }
+
+    @Test
+    void invalidationIsRepeatedAfterTheLag() throws Exception {
+        ReflectionTestUtils.setField(replicaLagInvalidation, "lagMillis", 200L);
+        CountDownLatch repeated = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        replicaLagInvalidation.repeat(repeated::countDown);
+
+        assertThat(repeated.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void failedInvalidationDoesNotStopTheNextOnes() throws Exception {
+        ReflectionTestUtils.setField(replicaLagInvalidation, "lagMillis", 10L);
+        CountDownLatch repeated = new CountDownLatch(1);
+
+        replicaLagInvalidation.repeat(() -> {
+            throw new IllegalStateException("redis down");
+        });
+        replicaLagInvalidation.repeat(repeated::countDown);
+
+        assertThat(repeated.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,19 +16,20 @@ class RedisConfigTest {
     private ApplicationContext applicationContext;
 
     @Autowired
-    private Jedis jedis;
+    private JedisPool jedisPool;
 
     @Test
-    void testJedisBeanLoadedInContext() {
+    void testJedisPoolBeanLoadedInContext() {
         assertThat(applicationContext).isNotNull();
-        assertThat(applicationContext.containsBean("getJedis")).isTrue();
-        assertThat(jedis).isNotNull();
+        assertThat(applicationContext.containsBean("jedisPool")).isTrue();
+        assertThat(applicationContext.containsBean("redisCircuitBreaker")).isTrue();
+        assertThat(jedisPool).isNotNull();
 
-         try {
+         try (Jedis jedis = jedisPool.getResource()) {
              jedis.ping();
              System.out.println("Jedis connection successful (pinged Redis).");
          } catch (Exception e) {
              System.err.println("Jedis connection failed during ping: " + e.getMessage());
          }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.springboot.sms.sms_spring.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two embedded H2 databases stand in for the primary and a replica, each knows its own name
+class ReplicaRoutingDataSourceTest {
+
+    private final DriverManagerDataSource primary = database("primary");
+    private final DriverManagerDataSource replica = database("replica");
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), 1);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary"); // no transaction at all
+    }
+
+    @Test
+    void pinnedThreadsReadFromThePrimary() {
+        ReadYourWrites.pin();
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedUntilItValidatesAgain() {
+        replica.setUrl(url("replica") + ";INIT=SELECT 1/0");
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary"); // connection failed, fell back
+        assertThat(routing.getReplicasUp()).isEmpty();
+
+        replica.setUrl(url("replica"));
+        routing.checkReplicas();
+
+        assertThat(routing.getReplicasUp()).containsExactly("replica-0");
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url(name), "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+        jdbcTemplate.execute("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+    }
+}
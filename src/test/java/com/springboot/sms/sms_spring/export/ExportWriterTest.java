@@ -0,0 +1,76 @@
+package com.springboot.sms.sms_spring.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvQuotesStringsAndLeavesNullBranchEmpty() throws IOException {
+        Path file = write(ExportFormat.CSV);
+
+        assertThat(Files.readString(file)).isEqualTo("roll_no,name,percentage,branch\n"
+                + "1,\"Alice \"\"Al\"\" Ünal\",85.5,\"CS\"\n"
+                + "2,\"Bob\",70.0,\n"
+                + "3,\"Carol\",90.0,\"CS\"\n");
+    }
+
+    @Test
+    void binaryWritesEachBranchOnce() throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(write(ExportFormat.BINARY)));
+
+        byte[] magic = new byte[4];
+        in.get(magic);
+        assertThat(magic).isEqualTo(BinaryExportWriter.MAGIC);
+        assertThat(in.get()).isEqualTo(BinaryExportWriter.VERSION);
+
+        assertThat(in.getInt()).isEqualTo(1);
+        assertThat(in.getFloat()).isEqualTo(85.5f);
+        assertThat(in.get()).isEqualTo((byte) 1);        // Introduces branch 1
+        assertThat(string(in)).isEqualTo("CS");
+        assertThat(string(in)).isEqualTo("Alice \"Al\" Ünal");
+
+        assertThat(in.getInt()).isEqualTo(2);
+        in.getFloat();
+        assertThat(in.get()).isEqualTo((byte) 0);        // Null branch
+        assertThat(string(in)).isEqualTo("Bob");
+
+        assertThat(in.getInt()).isEqualTo(3);
+        in.getFloat();
+        assertThat(in.get()).isEqualTo((byte) 1);        // Refers back to CS
+        assertThat(string(in)).isEqualTo("Carol");
+        assertThat(in.hasRemaining()).isFalse();
+    }
+
+    private Path write(ExportFormat format) throws IOException {
+        Path file = dir.resolve("students." + format.getExtension());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             ExportWriter writer = format.open(channel)) {
+            writer.row(1, "Alice \"Al\" Ünal", 85.5f, "CS");
+            writer.row(2, "Bob", 70f, null);
+            writer.row(3, "Carol", 90f, "CS");
+            assertThat(writer.getRows()).isEqualTo(3);
+        }
+        return file;
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = in.get() - 1; // Short strings, single byte varint
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
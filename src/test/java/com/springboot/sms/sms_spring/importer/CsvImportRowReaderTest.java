@@ -0,0 +1,77 @@
+package com.springboot.sms.sms_spring.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvImportRowReaderTest {
+
+    @Test
+    void readsColumnsByHeaderName() throws IOException {
+        CsvImportRowReader reader = new CsvImportRowReader(new StringReader(
+                "branch,extra,Name,percentage\r\nCS,x,Alice,85.5\r\n,y,Bob,\r\n"));
+
+        ImportRow alice = reader.next();
+        assertThat(alice.line()).isEqualTo(2);
+        assertThat(alice.student().getName()).isEqualTo("Alice");
+        assertThat(alice.student().getPercentage()).isEqualTo(85.5f);
+        assertThat(alice.student().getBranch()).isEqualTo("CS");
+
+        ImportRow bob = reader.next();
+        assertThat(bob.line()).isEqualTo(3);
+        assertThat(bob.student().getPercentage()).isZero(); // Blank percentage defaults like a JSON create
+        assertThat(bob.student().getBranch()).isNull();     // Blank branch is stored as NULL
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void handlesQuotedFieldsAndBlankLines() throws IOException {
+        CsvImportRowReader reader = new CsvImportRowReader(new StringReader(
+                "name,percentage,branch\n\"Smith, \"\"Jo\"\"\",70,\"Civil\nEngineering\"\n\nCarol,60,EE"));
+
+        ImportRow smith = reader.next();
+        assertThat(smith.student().getName()).isEqualTo("Smith, \"Jo\"");
+        assertThat(smith.student().getBranch()).isEqualTo("Civil\nEngineering");
+
+        ImportRow carol = reader.next();
+        assertThat(carol.line()).isEqualTo(5); // The quoted newline and the blank line still count
+        assertThat(carol.student().getName()).isEqualTo("Carol");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void reportsBadRecordsWithTheirLine() throws IOException {
+        CsvImportRowReader reader = new CsvImportRowReader(new StringReader(
+                "name,percentage\nAlice,lots\nBob,\"70"));
+
+        ImportRow notANumber = reader.next();
+        assertThat(notANumber.line()).isEqualTo(2);
+        assertThat(notANumber.error()).contains("percentage");
+
+        ImportRow unterminated = reader.next();
+        assertThat(unterminated.line()).isEqualTo(3);
+        assertThat(unterminated.error()).isEqualTo("unterminated quoted field");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void rejectsOverlongFieldWithoutBufferingIt() throws IOException {
+        String name = "x".repeat(CsvImportRowReader.MAX_FIELD_CHARS + 10);
+        CsvImportRowReader reader = new CsvImportRowReader(new StringReader("name\n" + name + "\nBob\n"));
+
+        assertThat(reader.next().error()).startsWith("field longer than");
+        assertThat(reader.next().student().getName()).isEqualTo("Bob");
+    }
+
+    @Test
+    void requiresANameColumn() {
+        assertThatThrownBy(() -> new CsvImportRowReader(new StringReader("percentage,branch\n70,CS\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CsvImportRowReader(new StringReader("")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
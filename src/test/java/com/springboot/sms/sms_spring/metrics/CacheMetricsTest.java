@@ -0,0 +1,58 @@
+package com.springboot.sms.sms_spring.metrics;
+
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.MeteredCacheCodec;
+import com.springboot.sms.sms_spring.entity.Student;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CacheMetrics cacheMetrics = new CacheMetrics();
+
+    CacheMetricsTest() {
+        ReflectionTestUtils.setField(cacheMetrics, "meterRegistry", registry);
+    }
+
+    @AfterEach
+    void clearEndpoint() {
+        EndpointContext.clear();
+    }
+
+    @Test
+    void testLookupsAreCountedPerFamilyAndEndpoint() {
+        EndpointContext.set("getStudent");
+        cacheMetrics.hit("students");
+        cacheMetrics.hit("students");
+        cacheMetrics.miss("students");
+        EndpointContext.clear();
+        cacheMetrics.miss("students:all");
+
+        assertThat(registry.get("sms.cache.requests").tags("family", "students", "result", "hit", "endpoint", "getStudent")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("sms.cache.requests").tags("family", "students", "result", "miss").counter().count()).isEqualTo(1);
+        assertThat(registry.get("sms.cache.requests").tags("family", "students:all", "endpoint", EndpointContext.NONE)
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMeteredCodecRecordsTimeAndPayloadSize() {
+        CacheCodec codec = new MeteredCacheCodec(new BinaryCacheCodec(), "binary", cacheMetrics);
+        byte[] bytes = codec.encode(new Student(1, "Alice", 90.5f, "CS"));
+
+        assertThat(codec.<Student>decode(bytes, Student.class).getName()).isEqualTo("Alice");
+        assertThat(codec.<Student>decode(null, Student.class)).isNull(); // A miss is not a decode
+
+        DistributionSummary encoded = registry.get("sms.cache.payload").tags("codec", "binary", "operation", "encode").summary();
+        assertThat(encoded.count()).isEqualTo(1);
+        assertThat(encoded.totalAmount()).isEqualTo(bytes.length);
+        assertThat(registry.get("sms.cache.serialization").tags("operation", "decode").timer().count()).isEqualTo(1);
+    }
+}
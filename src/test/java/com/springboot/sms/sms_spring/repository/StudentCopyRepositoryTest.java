@@ -0,0 +1,60 @@
+package com.springboot.sms.sms_spring.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StudentCopyRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private StudentCopyRepository studentCopyRepository;
+
+    @Test
+    void freshSequenceHandsOutIdsFromItsStartValue() {
+        sequence(1000, 50); // CREATE SEQUENCE student_seq START 1000 INCREMENT BY 50, never used
+
+        // 1000 alone, then 1001..1050 and 1051..1100 from the next two values
+        assertThat(studentCopyRepository.nextIds(60)).containsExactly(IntStream.rangeClosed(1000, 1059).toArray());
+    }
+
+    @Test
+    void blockSizeIsTheIncrementOfTheSequence() {
+        sequence(1, 1); // Created with the default increment instead of the entity's allocationSize
+
+        int[] first = studentCopyRepository.nextIds(5);
+        int[] second = studentCopyRepository.nextIds(5);
+
+        assertThat(first).containsExactly(1, 2, 3, 4, 5);
+        assertThat(second).containsExactly(6, 7, 8, 9, 10);
+    }
+
+    // Answers the nextval query like PostgreSQL would for a sequence that was just created
+    private void sequence(long start, long increment) {
+        long[] next = {start};
+        when(jdbcTemplate.queryForList(anyString(), anyInt())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < invocation.<Integer>getArgument(1); i++) {
+                rows.add(Map.of("high", next[0], "increment", increment, "start", start));
+                next[0] += increment;
+            }
+            return rows;
+        });
+    }
+}
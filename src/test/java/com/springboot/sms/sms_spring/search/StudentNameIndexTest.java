@@ -0,0 +1,114 @@
+package com.springboot.sms.sms_spring.search;
+
+import com.springboot.sms.sms_spring.dto.StudentMatch;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class StudentNameIndexTest {
+
+    @Mock
+    private StudentExportRepository studentExportRepository;
+
+    @InjectMocks
+    private StudentNameIndex studentNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        String[] names = {"John Smith", "Joanna Doe", "Jon Snow", "Alice Johnson", "Bob"};
+        for (int i = 0; i < names.length; i++) {
+            studentNameIndex.onStudentChanged(StudentChangedEvent.created(new Student(i + 1, names[i], 70.0f, "CS")));
+        }
+    }
+
+    @Test
+    void matchesTheStartOfAnyWord() {
+        assertThat(studentNameIndex.search("jo", 10)).extracting(StudentMatch::getRollNo).containsExactly(1, 2, 3, 4);
+        assertThat(studentNameIndex.search("SMI jo", 10)).extracting(StudentMatch::getRollNo).containsExactly(1);
+        assertThat(studentNameIndex.search("jo", 2)).hasSize(2); // limit
+    }
+
+    @Test
+    void fillsUpWithFuzzyMatches() {
+        // "jhon" has no prefix match, a swap of two letters away from John
+        assertThat(studentNameIndex.search("jhon", 10))
+                .extracting(StudentMatch::getRollNo, StudentMatch::getDistance)
+                .contains(Tuple.tuple(1, 1), Tuple.tuple(4, 1));
+        assertThat(studentNameIndex.search("john", 10)).first().extracting(StudentMatch::getDistance).isEqualTo(0);
+    }
+
+    @Test
+    void findsOtherEditsThroughSharedInnerTrigrams() {
+        // "alixe" shares "ali" with Alice, one substitution away
+        assertThat(studentNameIndex.search("alixe", 10))
+                .extracting(StudentMatch::getRollNo, StudentMatch::getDistance)
+                .containsExactly(Tuple.tuple(4, 1));
+        // sharing only the first letter is not enough
+        assertThat(studentNameIndex.search("jxyz", 10)).isEmpty();
+    }
+
+    @Test
+    void followsRenamesAndDeletes() {
+        studentNameIndex.onStudentChanged(StudentChangedEvent.updated(
+                new Student(1, "John Smith", 70.0f, "CS"), new Student(1, "Jack Smith", 70.0f, "CS")));
+        studentNameIndex.onStudentChanged(StudentChangedEvent.deleted(new Student(3, "Jon Snow", 70.0f, "CS")));
+
+        assertThat(studentNameIndex.search("jo", 10)).extracting(StudentMatch::getRollNo).containsExactly(2, 4);
+        assertThat(studentNameIndex.search("jack", 10)).extracting(StudentMatch::getName).containsExactly("Jack Smith");
+        assertThat(studentNameIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentAddsAndRemovesOfOneNameLoseNoStudent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> lost = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Student student = new Student(100 + t, "Ann", 70.0f, "CS");
+                // Each remove may empty the postings another thread's add is appending to
+                lost.add(executor.submit(() -> {
+                    int missing = 0;
+                    for (int i = 0; i < 20_000; i++) {
+                        studentNameIndex.onStudentChanged(StudentChangedEvent.created(student));
+                        if (studentNameIndex.search("ann", 10).stream()
+                                .noneMatch(match -> match.getRollNo() == student.getRollNo())) {
+                            missing++;
+                        }
+                        studentNameIndex.onStudentChanged(StudentChangedEvent.deleted(student));
+                    }
+                    return missing;
+                }));
+            }
+            for (Future<Integer> missing : lost) {
+                assertThat(missing.get()).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void oneLetterQueryReadsNoMoreThanTheLimit() {
+        for (int i = 0; i < 1_000; i++) {
+            studentNameIndex.onStudentChanged(StudentChangedEvent.created(new Student(100 + i, "Jane " + i, 70.0f, "CS")));
+        }
+
+        assertThat(studentNameIndex.search("j", 3)).extracting(StudentMatch::getRollNo).containsExactly(1, 2, 3);
+    }
+}
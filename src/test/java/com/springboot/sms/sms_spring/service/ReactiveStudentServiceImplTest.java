@@ -0,0 +1,198 @@
+package com.springboot.sms.sms_spring.service;
+
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.ReactiveStudentCache;
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import com.springboot.sms.sms_spring.repository.ReactiveStudentRepository;
+import com.springboot.sms.sms_spring.repository.UpdatedStudent;
+import com.springboot.sms.sms_spring.service.impl.ReactiveStudentServiceImpl;
+import com.springboot.sms.sms_spring.stats.StudentStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveStudentServiceImplTest {
+
+    @Mock // Mock the R2DBC queries
+    private ReactiveStudentRepository studentRepository;
+
+    @Mock // Mock the reactive Redis cache
+    private ReactiveStudentCache studentCache;
+
+    @Mock // Mock the cache hit/miss counters
+    private CacheMetrics cacheMetrics;
+
+    @Mock // Mock the per-branch statistics
+    private StudentStatistics studentStatistics;
+
+    @Mock // Mock the publisher of change events
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReactiveStudentServiceImpl studentService;
+
+    @Spy // Real binary codec for cached values
+    private CacheCodec cacheCodec = new BinaryCacheCodec();
+
+    private final CacheCodec encoder = new BinaryCacheCodec(); // Builds cached values for stubbing
+
+    private final Student student1 = new Student(1, "Alice", 90.5f, "CS");
+    private final Student student2 = new Student(2, "Bob", 85.0f, "EE");
+
+    @Test
+    void testGetAllStudent_StreamsFromDatabase() {
+        when(studentRepository.findAll()).thenReturn(Flux.just(student1, student2));
+
+        ResponseEntity<Flux<Student>> response = studentService.getAllStudent().block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        StepVerifier.create(response.getBody(), 1) // Rows are handed out as they are requested
+                .expectNext(student1)
+                .thenRequest(1)
+                .expectNext(student2)
+                .verifyComplete();
+        verifyNoInteractions(studentCache); // Nothing is materialized for the cache
+    }
+
+    @Test
+    void testGetStudent_CacheHit() {
+        when(studentCache.get("students1")).thenReturn(Mono.just(encoder.encode(student1)));
+        when(studentRepository.findById(1)).thenReturn(Mono.just(student1)); // Assembled but never subscribed
+
+        StepVerifier.create(studentService.getStudent(1))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+                    assertThat(response.getBody()).isEqualTo(student1);
+                })
+                .verifyComplete();
+        verify(studentCache, never()).setex(anyString(), anyLong(), any(byte[].class));
+        verify(cacheMetrics, times(1)).hit("students");
+    }
+
+    @Test
+    void testGetStudent_CacheMiss_FoundInDB() {
+        when(studentCache.get("students1")).thenReturn(Mono.empty());
+        when(studentRepository.findById(1)).thenReturn(Mono.just(student1));
+        when(studentCache.setex(eq("students1"), anyLong(), any(byte[].class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.getStudent(1))
+                .assertNext(response -> assertThat(response.getBody()).isEqualTo(student1))
+                .verifyComplete();
+        verify(studentCache, times(1)).setex(eq("students1"), anyLong(), any(byte[].class));
+        verify(cacheMetrics, times(1)).miss("students");
+    }
+
+    @Test
+    void testGetStudent_NotFound() {
+        when(studentCache.get("students99")).thenReturn(Mono.empty());
+        when(studentRepository.findById(99)).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.getStudent(99))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND))
+                .verifyComplete();
+        verify(studentCache, never()).setex(anyString(), anyLong(), any(byte[].class));
+    }
+
+    @Test
+    void testGetStudents_MixesCacheHitsAndDatabaseMisses() {
+        when(studentCache.mget(List.of("students2", "students1", "students99")))
+                .thenReturn(Mono.just(Arrays.asList(encoder.encode(student2), null, null)));
+        when(studentRepository.findAllById(List.of(1, 99))).thenReturn(Flux.just(student1));
+        when(studentCache.setexAll(any(), anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.getStudents(List.of(2, 1, 99)))
+                .assertNext(response -> assertThat(response.getBody()).containsExactly(student2, student1))
+                .verifyComplete();
+        verify(studentCache, times(1)).setexAll(argThat(backfill -> backfill.keySet().equals(Set.of("students1", "students1:etag"))), anyLong());
+    }
+
+    @Test
+    void testUpdateStudent_WritesThroughAndInvalidatesBothBranches() {
+        Student changed = new Student(1, "Alice", 95.0f, "EE", 1);
+        when(studentRepository.updateReturning(1, "Alice", 95.0f, "EE")).thenReturn(Mono.just(updated(changed, "CS")));
+        when(studentCache.writeThrough(anyMap(), anyLong(), any(String[].class))).thenReturn(Mono.empty());
+        when(studentCache.publishInvalidation(anyInt())).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.updateStudent(changed, 1))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                    assertThat(response.getBody()).isEqualTo(changed);
+                })
+                .verifyComplete();
+        verify(studentCache, times(1)).writeThrough(argThat(entries -> entries.keySet().equals(Set.of("students1", "students1:etag"))), anyLong(),
+                eq("students:all"), eq("students:all:etag"), eq("students:pages"), eq("students:query"), eq("students:branch:EE"), eq("students:branch:CS"));
+        verify(studentCache, times(1)).publishInvalidation(1);
+        verify(eventPublisher, times(1)).publishEvent(StudentChangedEvent.updated(new Student(1, "Alice", 90.5f, "CS"), changed));
+    }
+
+    @Test
+    void testDeleteStudent_ReturnsGone() {
+        when(studentRepository.deleteReturning(1)).thenReturn(Mono.just(student1));
+        when(studentCache.del(any(String[].class))).thenReturn(Mono.empty());
+        when(studentCache.publishInvalidation(anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.deleteStudent(1))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GONE))
+                .verifyComplete();
+        verify(studentCache, times(1)).del("students1", "students1:etag", "students:all", "students:all:etag", "students:pages", "students:query", "students:branch:CS");
+        verify(eventPublisher, times(1)).publishEvent(StudentChangedEvent.deleted(student1));
+    }
+
+    @Test
+    void testCreateStudents_ReportsPerItemResults() {
+        Student valid = new Student(0, "Carol", 70.0f, "ME");
+        Student saved = new Student(3, "Carol", 70.0f, "ME");
+        when(studentRepository.insertAll(List.of(valid))).thenReturn(Flux.just(saved));
+        when(studentCache.del(any(String[].class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(studentService.createStudents(Arrays.asList(new Student(0, " ", 50.0f, "ME"), valid)))
+                .assertNext(response -> assertThat(response.getBody()).containsExactly(
+                        BatchItemResult.failed(0, null, HttpStatus.BAD_REQUEST.value(), "name is required"),
+                        BatchItemResult.ok(1, HttpStatus.CREATED.value(), saved)))
+                .verifyComplete();
+        verify(studentCache, times(1)).del("students:all", "students:all:etag", "students:pages", "students:query", "students:branch:ME");
+    }
+
+    private static UpdatedStudent updated(Student student, String previousBranch) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("rollNo", student.getRollNo());
+        row.put("name", student.getName());
+        row.put("percentage", student.getPercentage());
+        row.put("branch", student.getBranch());
+        row.put("version", student.getVersion());
+        row.put("previousName", "Alice");
+        row.put("previousPercentage", 90.5f);
+        row.put("previousBranch", previousBranch);
+        return new SpelAwareProxyProjectionFactory().createProjection(UpdatedStudent.class, row);
+    }
+}
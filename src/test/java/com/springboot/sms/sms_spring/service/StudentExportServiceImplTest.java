@@ -0,0 +1,218 @@
+package com.springboot.sms.sms_spring.service;
+
+import com.springboot.sms.sms_spring.dto.ExportSnapshot;
+import com.springboot.sms.sms_spring.repository.StudentExportRepository;
+import com.springboot.sms.sms_spring.repository.StudentRowHandler;
+import com.springboot.sms.sms_spring.service.impl.StudentExportServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentExportServiceImplTest {
+
+    private static final String CSV = "roll_no,name,percentage,branch\n1,\"Alice\",85.5,\"CS\"\n2,\"Bob\",70.0,\n";
+
+    @Mock // Mock the cursor over the student table
+    private StudentExportRepository studentExportRepository;
+
+    @InjectMocks
+    private StudentExportServiceImpl exportService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(exportService, "directory", dir);
+        ReflectionTestUtils.invokeMethod(exportService, "init");
+        lenient().doAnswer(inv -> {
+            StudentRowHandler handler = inv.getArgument(0);
+            handler.row(1, "Alice", 85.5f, "CS");
+            handler.row(2, "Bob", 70f, null);
+            return null;
+        }).when(studentExportRepository).forEach(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(exportService, "shutdown");
+    }
+
+    @Test
+    void exportRunsInTheBackgroundAndBecomesReady() throws Exception {
+        ExportSnapshot snapshot = export("csv");
+
+        assertThat(snapshot.getRows()).isEqualTo(2);
+        assertThat(snapshot.getBytes()).isEqualTo(CSV.length());
+        assertThat(Files.readString(dir.resolve(snapshot.getId() + ".csv"))).isEqualTo(CSV);
+        assertThat(Files.list(dir)).hasSize(1); // The .part file was renamed into place
+        assertThat(exportService.getExports().getBody()).containsExactly(snapshot);
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThat(exportService.createExport("xml").getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentExportRepository);
+    }
+
+    @Test
+    void failedExportLeavesNoFile() throws Exception {
+        doThrow(new IOException("disk full")).when(studentExportRepository).forEach(any());
+
+        ExportSnapshot snapshot = await(exportService.createExport("binary").getBody().getId());
+
+        assertThat(snapshot.getStatus()).isEqualTo(ExportSnapshot.Status.FAILED);
+        assertThat(snapshot.getError()).isEqualTo("disk full");
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    void unreachableDatabaseFailsTheExport() throws Exception {
+        doThrow(new CannotCreateTransactionException("connection refused")).when(studentExportRepository).forEach(any());
+
+        ExportSnapshot snapshot = await(exportService.createExport("csv").getBody().getId());
+
+        assertThat(snapshot.getStatus()).isEqualTo(ExportSnapshot.Status.FAILED);
+        assertThat(Files.list(dir)).isEmpty();
+    }
+
+    @Test
+    void servesTheWholeFileOrOneRange() throws Exception {
+        ExportSnapshot snapshot = export("csv");
+
+        MockHttpServletResponse full = download(snapshot, new MockHttpServletRequest("GET", "/"));
+        assertThat(full.getStatus()).isEqualTo(200);
+        assertThat(full.getContentAsString()).isEqualTo(CSV);
+        assertThat(full.getHeader("Accept-Ranges")).isEqualTo("bytes");
+
+        MockHttpServletRequest rangeRequest = new MockHttpServletRequest("GET", "/");
+        rangeRequest.addHeader("Range", "bytes=31-");
+        MockHttpServletResponse range = download(snapshot, rangeRequest);
+        assertThat(range.getStatus()).isEqualTo(206);
+        assertThat(range.getHeader("Content-Range")).isEqualTo("bytes 31-" + (CSV.length() - 1) + "/" + CSV.length());
+        assertThat(range.getContentAsString()).isEqualTo(CSV.substring(31));
+
+        MockHttpServletRequest suffixRequest = new MockHttpServletRequest("GET", "/");
+        suffixRequest.addHeader("Range", "bytes=-5");
+        assertThat(download(snapshot, suffixRequest).getContentAsString()).isEqualTo("0.0,\n");
+
+        MockHttpServletRequest staleRequest = new MockHttpServletRequest("GET", "/");
+        staleRequest.addHeader("Range", "bytes=31-");
+        staleRequest.addHeader("If-Range", "\"older\"");
+        assertThat(download(snapshot, staleRequest).getStatus()).isEqualTo(200); // Changed since, whole file
+
+        MockHttpServletRequest beyondRequest = new MockHttpServletRequest("GET", "/");
+        beyondRequest.addHeader("Range", "bytes=1000-");
+        MockHttpServletResponse beyond = download(snapshot, beyondRequest);
+        assertThat(beyond.getStatus()).isEqualTo(416);
+        assertThat(beyond.getHeader("Content-Range")).isEqualTo("bytes */" + CSV.length());
+    }
+
+    @Test
+    void handsTheFileToTomcatSendfileWhenAvailable() throws Exception {
+        ExportSnapshot snapshot = export("csv");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-19");
+
+        MockHttpServletResponse response = download(snapshot, request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEmpty(); // Tomcat writes the body
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(dir.resolve(snapshot.getId() + ".csv").toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(10L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(20L);
+    }
+
+    @Test
+    void keepsOnlyTheNewestSnapshotsPerFormat() throws Exception {
+        ReflectionTestUtils.setField(exportService, "retain", 1);
+        ExportSnapshot first = export("csv");
+        ExportSnapshot binary = export("binary");
+        ExportSnapshot second = export("csv");
+
+        assertThat(exportService.getExport(first.getId()).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exportService.getExports().getBody()).containsExactlyInAnyOrder(second, binary);
+        assertThat(Files.exists(dir.resolve(first.getId() + ".csv"))).isFalse();
+    }
+
+    @Test
+    void prunedFileJustHandedToSendfileIsDeletedAfterTheGrace() throws Exception {
+        ReflectionTestUtils.setField(exportService, "retain", 1);
+        ExportSnapshot first = export("csv");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        download(first, request);
+
+        export("csv");
+
+        Path file = dir.resolve(first.getId() + ".csv");
+        assertThat(exportService.getExport(first.getId()).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(Files.exists(file)).isTrue(); // Tomcat may not have opened it yet
+        ReflectionTestUtils.setField(exportService, "sendfileGraceSeconds", 0L);
+        export("csv");
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    void findsFinishedSnapshotsAgainAfterARestart() throws Exception {
+        ExportSnapshot snapshot = export("csv");
+        Files.writeString(dir.resolve("abandoned.csv.part"), "partial");
+
+        StudentExportServiceImpl restarted = new StudentExportServiceImpl();
+        ReflectionTestUtils.setField(restarted, "directory", dir);
+        ReflectionTestUtils.invokeMethod(restarted, "init");
+
+        ResponseEntity<ExportSnapshot> found = restarted.getExport(snapshot.getId());
+        assertThat(found.getBody().getStatus()).isEqualTo(ExportSnapshot.Status.READY);
+        assertThat(found.getBody().getBytes()).isEqualTo(snapshot.getBytes());
+        assertThat(Files.exists(dir.resolve("abandoned.csv.part"))).isFalse();
+        ReflectionTestUtils.invokeMethod(restarted, "shutdown");
+    }
+
+    private ExportSnapshot export(String format) throws InterruptedException {
+        ResponseEntity<ExportSnapshot> response = exportService.createExport(format);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getLocation()).hasPath("/students/exports/" + response.getBody().getId());
+        ExportSnapshot snapshot = await(response.getBody().getId());
+        assertThat(snapshot.getStatus()).isEqualTo(ExportSnapshot.Status.READY);
+        return snapshot;
+    }
+
+    private ExportSnapshot await(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ExportSnapshot snapshot = exportService.getExport(id).getBody();
+            if (snapshot.getStatus() != ExportSnapshot.Status.RUNNING) return snapshot;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("export " + id + " did not finish");
+    }
+
+    private MockHttpServletResponse download(ExportSnapshot snapshot, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        exportService.download(snapshot.getId(), request, response);
+        return response;
+    }
+}
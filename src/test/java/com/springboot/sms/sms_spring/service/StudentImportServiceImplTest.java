@@ -0,0 +1,146 @@
+package com.springboot.sms.sms_spring.service;
+
+import com.google.gson.Gson;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.dto.ImportProgress;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentCopyRepository;
+import com.springboot.sms.sms_spring.service.impl.StudentImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentImportServiceImplTest {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Mock // Mock the COPY based bulk loader
+    private StudentCopyRepository studentCopyRepository;
+
+    @Mock // Mock the Redis cache dependency
+    private StudentCache studentCache;
+
+    @Mock // Mock the publisher of change events
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private StudentImportServiceImpl importService;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final List<List<Student>> copied = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "chunkRows", 2);
+        lenient().when(studentCopyRepository.nextIds(anyInt()))
+                .thenAnswer(inv -> IntStream.range(0, inv.<Integer>getArgument(0)).map(i -> nextId.getAndIncrement()).toArray());
+        lenient().when(studentCopyRepository.copy(any())).thenAnswer(inv -> {
+            List<Student> chunk = inv.getArgument(0);
+            copied.add(List.copyOf(chunk));
+            return (long) chunk.size();
+        });
+    }
+
+    @Test
+    void loadsValidRowsInChunksAndInvalidatesOnce() throws IOException {
+        List<ImportProgress> progress = run(CSV,
+                "name,percentage,branch\nAlice,90,CS\n ,50,CS\nBob,80,EE\nCarol,70,CS\n");
+
+        // Chunks of two: the rejected row makes two records read, so Alice is flushed on her own
+        assertThat(copied).hasSize(2);
+        assertThat(copied.get(0)).extracting(Student::getName).containsExactly("Alice");
+        assertThat(copied.get(1)).extracting(Student::getName).containsExactly("Bob", "Carol");
+        assertThat(copied.get(1)).extracting(Student::getRollNo).containsExactly(2, 3);
+
+        ImportProgress last = progress.get(progress.size() - 1);
+        assertThat(last.isDone()).isTrue();
+        assertThat(last.getRows()).isEqualTo(4);
+        assertThat(last.getImported()).isEqualTo(3);
+        assertThat(last.getRejected()).isEqualTo(1);
+        assertThat(progress.stream().flatMap(p -> p.getErrors().stream()))
+                .singleElement()
+                .satisfies(error -> {
+                    assertThat(error.getLine()).isEqualTo(3);
+                    assertThat(error.getError()).isEqualTo("name is required");
+                });
+
+        verify(studentCache, times(1)).del(any(String[].class));
+        verify(eventPublisher, times(3)).publishEvent(any(StudentChangedEvent.class));
+    }
+
+    @Test
+    void readsNdjson() throws IOException {
+        List<ImportProgress> progress = run(MediaType.APPLICATION_NDJSON,
+                "{\"rollNo\":99,\"name\":\"Alice\",\"percentage\":90,\"branch\":\"CS\"}\n{oops\n");
+
+        assertThat(copied).singleElement().satisfies(chunk ->
+                assertThat(chunk).extracting(Student::getRollNo).containsExactly(1)); // Supplied ids are replaced
+        ImportProgress last = progress.get(progress.size() - 1);
+        assertThat(last.getImported()).isEqualTo(1);
+        assertThat(last.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsAtTheFirstRefusedChunkAndKeepsEarlierOnes() throws IOException {
+        doReturn(2L).doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(studentCopyRepository).copy(any());
+
+        List<ImportProgress> progress = run(CSV, "name,branch\nA,CS\nB,CS\nC,EE\nD,EE\nE,ME\n");
+
+        ImportProgress last = progress.get(progress.size() - 1);
+        assertThat(last.isDone()).isTrue();
+        assertThat(last.getImported()).isEqualTo(2);
+        assertThat(last.getFailure()).isEqualTo("duplicate key");
+        verify(studentCopyRepository, times(2)).copy(any());
+        // Only the committed chunk's branch is invalidated
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(studentCache).del(keys.capture());
+        assertThat(keys.getValue()).anyMatch(k -> k.endsWith("CS")).noneMatch(k -> k.endsWith("EE"));
+    }
+
+    @Test
+    void rejectsCsvWithoutNameColumn() {
+        ResponseEntity<StreamingResponseBody> response = importService.importStudents(
+                new ByteArrayInputStream("percentage\n70\n".getBytes(StandardCharsets.UTF_8)), CSV);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentCopyRepository, studentCache);
+    }
+
+    private List<ImportProgress> run(MediaType type, String body) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = importService.importStudents(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), type);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        Gson gson = new Gson();
+        return out.toString(StandardCharsets.UTF_8).lines().map(line -> gson.fromJson(line, ImportProgress.class)).toList();
+    }
+}
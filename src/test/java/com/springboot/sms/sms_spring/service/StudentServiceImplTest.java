@@ -1,28 +1,53 @@
 package com.springboot.sms.sms_spring.service;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.ETags;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.datasource.ReadYourWrites;
+import com.springboot.sms.sms_spring.dto.BatchItemResult;
+import com.springboot.sms.sms_spring.dto.StudentFieldsPage;
+import com.springboot.sms.sms_spring.dto.StudentPage;
+import com.springboot.sms.sms_spring.dto.StudentPatch;
+import com.springboot.sms.sms_spring.dto.StudentSlice;
 import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.metrics.CacheMetrics;
+import com.springboot.sms.sms_spring.repository.StudentField;
 import com.springboot.sms.sms_spring.repository.StudentRepository;
-import com.springboot.sms.sms_spring.service.StudentService;
+import com.springboot.sms.sms_spring.repository.UpdatedStudent;
+import com.springboot.sms.sms_spring.search.StudentNameIndex;
 import com.springboot.sms.sms_spring.service.impl.StudentServiceImpl;
+import com.springboot.sms.sms_spring.stats.StudentStatistics;
+import com.springboot.sms.sms_spring.warmup.StudentAccessTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import redis.clients.jedis.Jedis;
 
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -35,15 +60,35 @@ class StudentServiceImplTest {
     @Mock // Mock the StudentRepository dependency
     private StudentRepository studentRepository;
 
-    @Mock // Mock the Jedis dependency
-    private Jedis jedis;
+    @Mock // Mock the Redis cache dependency
+    private StudentCache studentCache;
 
-    @Mock // Mock the Gson dependency
-    private Gson gson;
+    @Mock // Mock the in-process near cache
+    private StudentNearCache studentNearCache;
+
+    @Mock // Mock the per-branch statistics
+    private StudentStatistics studentStatistics;
+
+    @Mock // Mock the per-id read counters used for warm-up
+    private StudentAccessTracker studentAccessTracker;
+
+    @Mock // Mock the in-memory name index
+    private StudentNameIndex studentNameIndex;
+
+    @Mock // Mock the publisher of change events
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock // Mock the cache hit/miss counters
+    private CacheMetrics cacheMetrics;
 
     @InjectMocks // Inject the mocks into StudentServiceImpl
     private StudentServiceImpl studentService;
 
+    @Spy // Real binary codec for cached values
+    private CacheCodec cacheCodec = new BinaryCacheCodec();
+
+    private final CacheCodec encoder = new BinaryCacheCodec(); // Builds cached values for stubbing
+
     private Student student1;
     private Student student2;
     private List<Student> studentList;
@@ -64,59 +109,6 @@ class StudentServiceImplTest {
         student2.setBranch("EE");
 
         studentList = Arrays.asList(student1, student2);
-
-        // Reset mocks before each test to ensure clean state
-        // This is often handled by @ExtendWith(MockitoExtension.class) but good for clarity
-        reset(studentRepository, jedis, gson);
-
-        // Stub Gson behavior for common scenarios if not explicitly tested
-        // For general object serialization
-        when(gson.toJson(any(Student.class))).thenAnswer(invocation -> {
-            Student s = invocation.getArgument(0);
-            return "{\"id\":" + s.getRollNo() + ",\"name\":\"" + s.getName() + "\",\"percentage\":" + s.getPercentage() + ",\"branch\":\"" + s.getBranch() + "\"}";
-        });
-        // For list serialization
-        when(gson.toJson(any(List.class))).thenAnswer(invocation -> {
-            List<Student> list = invocation.getArgument(0);
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < list.size(); i++) {
-                Student s = list.get(i);
-                sb.append(gson.toJson(s)); // Recursively use the mocked toJson for Student
-                if (i < list.size() - 1) {
-                    sb.append(",");
-                }
-            }
-            sb.append("]");
-            return sb.toString();
-        });
-
-        // Stub Gson deserialization (make sure to match the type argument)
-        when(gson.fromJson(anyString(), eq(Student.class))).thenAnswer(invocation -> {
-            String json = invocation.getArgument(0);
-            // Simplified deserialization for test, in real Gson would parse it.
-            // This is to simulate what Gson would return for a specific string.
-            if (json.contains("Alice")) {
-                return student1;
-            } else if (json.contains("Bob")) {
-                return student2;
-            }
-            return null;
-        });
-
-        // Mocking deserialization for List<Student> requires capturing the Type argument
-        when(gson.fromJson(anyString(), any(Type.class))).thenAnswer(invocation -> {
-            String json = invocation.getArgument(0);
-            Type type = invocation.getArgument(1);
-
-            // Check if the type is indeed List<Student> (simplified for test)
-            if (type instanceof TypeToken<?> && ((TypeToken<?>) type).getRawType().equals(List.class)) {
-                // If the cached string looks like the list of students, return studentList
-                if (json.contains("Alice") && json.contains("Bob")) {
-                    return studentList;
-                }
-            }
-            return null; // Return null if not matching
-        });
     }
 
     // --- createStudent Tests ---
@@ -128,7 +120,6 @@ class StudentServiceImplTest {
 
         // When
         when(studentRepository.save(any(Student.class))).thenReturn(savedStudent);
-        when(jedis.del(eq("students:all"))).thenReturn(1L); // Mock cache invalidation
 
         ResponseEntity<Student> response = studentService.createStudent(newStudent);
 
@@ -136,7 +127,8 @@ class StudentServiceImplTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         assertThat(response.getBody()).isEqualTo(savedStudent);
         verify(studentRepository, times(1)).save(newStudent);
-        verify(jedis, times(1)).del("students:all"); // Verify cache invalidation
+        verify(eventPublisher, times(1)).publishEvent(StudentChangedEvent.created(savedStudent));
+        verify(studentCache, times(1)).del("students:all", "students:all:etag", "students:pages", "students:query", "students:branch:ME"); // Verify cache invalidation
     }
 
     @Test
@@ -151,7 +143,7 @@ class StudentServiceImplTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody()).isNull();
         verify(studentRepository, never()).save(any(Student.class)); // Should not interact with repo
-        verify(jedis, never()).del(anyString()); // Should not interact with cache
+        verifyNoInteractions(studentCache); // Should not interact with cache
     }
 
     @Test
@@ -166,99 +158,313 @@ class StudentServiceImplTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody()).isNull();
         verify(studentRepository, never()).save(any(Student.class));
-        verify(jedis, never()).del(anyString());
+        verifyNoInteractions(studentCache);
     }
 
     // --- getAllStudent Tests ---
     @Test
     void testGetAllStudent_CacheHit() {
         // Given
-        String cachedStudentsJson = gson.toJson(studentList); // Use mocked gson to convert list to JSON string
-        when(jedis.get("students:all")).thenReturn(cachedStudentsJson);
-        // Gson's fromJson for List<Student> is stubbed in setUp() to return studentList
+        when(studentCache.get("students:all")).thenReturn(encoder.encode(studentList));
 
         // When
-        ResponseEntity<List<Student>> response = studentService.getAllStudent();
+        ResponseEntity<List<Student>> response = studentService.getAllStudent(null);
 
         // Then
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).containsExactly(student1, student2);
-        verify(jedis, times(1)).get("students:all");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        assertThat(response.getBody()).containsExactly(student1, student2); // Decoded as Student objects
+        verify(studentCache, times(1)).get("students:all");
         verify(studentRepository, never()).findAll(); // Should not hit DB
-        verify(jedis, never()).setex(anyString(), anyInt(), anyString()); // Should not set cache
+        verify(studentCache, never()).setexAll(anyMap(), anyLong()); // Should not set cache
+        verify(cacheMetrics, times(1)).hit("students:all");
     }
 
     @Test
     void testGetAllStudent_CacheMiss() {
         // Given
-        when(jedis.get("students:all")).thenReturn(null); // Cache miss
+        when(studentCache.get("students:all")).thenReturn(null); // Cache miss
         when(studentRepository.findAll()).thenReturn(studentList);
-        when(jedis.setex(eq("students:all"), anyInt(), anyString())).thenReturn("OK"); // Mock Jedis setex
 
         // When
-        ResponseEntity<List<Student>> response = studentService.getAllStudent();
+        ResponseEntity<List<Student>> response = studentService.getAllStudent(null);
 
         // Then
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
         assertThat(response.getBody()).containsExactly(student1, student2);
-        verify(jedis, times(1)).get("students:all");
+        verify(studentCache, times(1)).get("students:all");
         verify(studentRepository, times(1)).findAll(); // Should hit DB
-        verify(jedis, times(1)).setex(eq("students:all"), anyInt(), anyString()); // Should set cache
+        verify(studentCache, times(1)).setexAll(argThat(values -> values.keySet().equals(Set.of("students:all", "students:all:etag"))), anyLong()); // Value and its tag
+        verify(cacheMetrics, times(1)).miss("students:all");
+    }
+
+    // --- getStudentPage Tests ---
+    @Test
+    void testGetStudentPage_CacheMiss() {
+        // Given
+        when(studentCache.hget("students:pages", "0:2")).thenReturn(null); // Cache miss
+        when(studentRepository.findByRollNoGreaterThanOrderByRollNoAsc(0, Limit.of(2))).thenReturn(studentList);
+
+        // When
+        ResponseEntity<StudentPage> response = studentService.getStudentPage(0, 2);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getStudents()).containsExactly(student1, student2);
+        assertThat(response.getBody().getNextAfter()).isEqualTo(2); // Full page, cursor points at the last row
+        verify(studentCache, times(1)).hsetex(eq("students:pages"), eq("0:2"), anyLong(), any(byte[].class));
+    }
+
+    @Test
+    void testGetStudentPage_CacheHit() {
+        // Given
+        when(studentCache.hget("students:pages", "2:10")).thenReturn(encoder.encode(new StudentPage(List.of(), null)));
+
+        // When
+        ResponseEntity<StudentPage> response = studentService.getStudentPage(2, 10);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getStudents()).isEmpty();
+        assertThat(response.getBody().getNextAfter()).isNull();
+        verifyNoInteractions(studentRepository); // Should not hit DB
+    }
+
+    // --- getStudentFields Tests ---
+    @Test
+    void testGetStudentFields_Page() {
+        // Given
+        List<Map<String, Object>> rows = List.of(Map.of("rollNo", 1, "name", "Alice"), Map.of("rollNo", 2, "name", "Bob"));
+        when(studentRepository.findProjected(Set.of(StudentField.ROLL_NO, StudentField.NAME), 0, 2)).thenReturn(rows);
+
+        // When
+        ResponseEntity<?> response = studentService.getStudentFields("name", null, 2);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        StudentFieldsPage page = (StudentFieldsPage) response.getBody();
+        assertThat(page.getStudents()).isEqualTo(rows);
+        assertThat(page.getNextAfter()).isEqualTo(2); // rollNo is always selected, it is the cursor
+        verifyNoInteractions(studentCache); // Projections bypass Redis
+    }
+
+    @Test
+    void testGetStudentFields_UnknownField() {
+        // When
+        ResponseEntity<?> response = studentService.getStudentFields("name,password", null, null);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentRepository);
+    }
+
+    @Test
+    void testGetStudentPage_BadLimit() {
+        // When
+        ResponseEntity<StudentPage> response = studentService.getStudentPage(0, 0);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentRepository, studentCache);
+    }
+
+    // --- query Tests ---
+    @Test
+    void testFindStudents_CachedPerBranch() {
+        // Given
+        when(studentCache.hget("students:branch:CS", "filter:80.0:100.0:0:1")).thenReturn(null); // Cache miss
+        when(studentRepository.findByBranchAndPercentageBetween(eq("CS"), eq(80.0f), eq(100.0f), any()))
+                .thenReturn(new SliceImpl<>(List.of(student1), PageRequest.of(0, 1), true));
+
+        // When
+        ResponseEntity<StudentSlice> response = studentService.findStudents("CS", 80.0f, 100.0f, 0, 1);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getStudents()).containsExactly(student1);
+        assertThat(response.getBody().isHasNext()).isTrue();
+        verify(studentCache, times(1)).hsetex(eq("students:branch:CS"), eq("filter:80.0:100.0:0:1"), anyLong(), any(byte[].class));
+    }
+
+    @Test
+    void testFindStudents_BadRange() {
+        // When
+        ResponseEntity<StudentSlice> response = studentService.findStudents(null, 90.0f, 10.0f, 0, 10);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentRepository, studentCache);
+    }
+
+    @Test
+    void testGetTopStudents_CacheHit() {
+        // Given
+        when(studentCache.hget("students:query", "top:2")).thenReturn(encoder.encode(studentList));
+
+        // When
+        ResponseEntity<List<Student>> response = studentService.getTopStudents(null, 2);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(student1, student2); // Decoded as Student objects
+        verifyNoInteractions(studentRepository);
     }
 
     // --- getStudent Tests ---
+    @Test
+    void testGetStudent_NearCacheHit() {
+        // Given
+        when(studentNearCache.get(1)).thenReturn(student1);
+
+        // When
+        ResponseEntity<?> response = studentService.getStudent(1, null);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        assertThat(response.getBody()).isSameAs(student1);
+        verifyNoInteractions(studentCache); // Should not go to Redis
+        verify(studentRepository, never()).findById(anyInt());
+        verify(studentAccessTracker).record(1); // Near cache hits still count as reads
+    }
+
     @Test
     void testGetStudent_CacheHit() {
         // Given
-        String cachedStudentJson = gson.toJson(student1); // Use mocked gson to convert student to JSON string
-        when(jedis.get("students:1")).thenReturn(cachedStudentJson);
-        // Gson's fromJson for Student is stubbed in setUp() to return student1
+        when(studentCache.get("students1")).thenReturn(encoder.encode(student1));
 
         // When
-        ResponseEntity<?> response = studentService.getStudent(1);
+        ResponseEntity<?> response = studentService.getStudent(1, null);
 
         // Then
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
         assertThat(response.getBody()).isEqualTo(student1);
-        verify(jedis, times(1)).get("students:1");
-        verify(studentRepository, never()).getById(anyInt()); // Should not hit DB
-        verify(jedis, never()).setex(anyString(), anyInt(), anyString()); // Should not set cache
+        verify(studentCache, times(1)).get("students1");
+        verify(studentRepository, never()).findById(anyInt()); // Should not hit DB
+        verify(studentCache, never()).setexAll(anyMap(), anyLong()); // Should not set cache
     }
 
     @Test
     void testGetStudent_CacheMiss_FoundInDB() {
         // Given
-        when(jedis.get("students:1")).thenReturn(null); // Cache miss
-        when(studentRepository.getById(1)).thenReturn(student1);
-        when(jedis.setex(eq("students:1"), anyInt(), anyString())).thenReturn("OK"); // Mock Jedis setex
+        when(studentCache.get("students1")).thenReturn(null); // Cache miss
+        when(studentRepository.findById(1)).thenReturn(Optional.of(student1));
 
         // When
-        ResponseEntity<?> response = studentService.getStudent(1);
+        ResponseEntity<?> response = studentService.getStudent(1, null);
 
         // Then
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
         assertThat(response.getBody()).isEqualTo(student1);
-        verify(jedis, times(1)).get("students:1");
-        verify(studentRepository, times(1)).getById(1); // Should hit DB
-        verify(jedis, times(1)).setex(eq("students:1"), anyInt(), anyString()); // Should set cache
+        verify(studentCache, times(1)).get("students1");
+        verify(studentRepository, times(1)).findById(1); // Should hit DB
+        verify(studentCache, times(1)).setexAll(argThat(values -> values.keySet().equals(Set.of("students1", "students1:etag"))), anyLong()); // Value and its tag
+        verify(studentNearCache, times(1)).put(student1);
+    }
+
+    @Test
+    void testGetStudent_CacheMiss_LoadedFromAReplica() {
+        // Given
+        List<Boolean> pinned = new ArrayList<>();
+        when(studentCache.get("students1")).thenReturn(null); // Cache miss
+        when(studentRepository.findById(1)).thenAnswer(invocation -> {
+            pinned.add(ReadYourWrites.isPinned()); // An unpinned read-only finder is routed to a replica
+            return Optional.of(student1);
+        });
+
+        // When
+        ResponseEntity<?> response = studentService.getStudent(1, null);
+
+        // Then
+        assertThat(response.getBody()).isEqualTo(student1);
+        assertThat(pinned).containsExactly(false);
+        verify(studentCache, times(1)).setexAll(anyMap(), anyLong()); // Still cached, the repeated invalidation bounds its staleness
     }
 
     @Test
     void testGetStudent_CacheMiss_NotFoundInDB() {
         // Given
-        when(jedis.get("students:99")).thenReturn(null); // Cache miss
-        when(studentRepository.getById(99)).thenReturn(null);
+        when(studentCache.get("students99")).thenReturn(null); // Cache miss
+        when(studentRepository.findById(99)).thenReturn(Optional.empty());
         // No setex expected if not found
 
         // When
-        ResponseEntity<?> response = studentService.getStudent(99);
+        ResponseEntity<?> response = studentService.getStudent(99, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
-        assertThat(response.getBody()).isNull(); // Check for null body as per your service logic
-        verify(jedis, times(1)).get("students:99");
-        verify(studentRepository, times(1)).getById(99); // Should hit DB
-        verify(jedis, never()).setex(anyString(), anyInt(), anyString()); // Should not set cache
+        assertThat(response.getBody()).isNull();
+        verify(studentCache, times(1)).get("students99");
+        verify(studentRepository, times(1)).findById(99); // Should hit DB
+        verify(studentCache, never()).setexAll(anyMap(), anyLong()); // Should not set cache
+    }
+
+    @Test
+    void testGetStudent_NotModifiedFromCachedTag() {
+        // Given
+        when(studentCache.get("students1:etag")).thenReturn("\"3\"".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        ResponseEntity<?> response = studentService.getStudent(1, "\"2\", \"3\"");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"3\"");
+        assertThat(response.getBody()).isNull();
+        verify(studentCache, never()).get("students1"); // The cached body is not even fetched
+        verifyNoInteractions(studentRepository);
+    }
+
+    @Test
+    void testGetStudent_ChangedSinceTag() {
+        // Given
+        student1.setVersion(4);
+        when(studentCache.get("students1:etag")).thenReturn(null); // Tag expired with the value
+        when(studentRepository.findById(1)).thenReturn(Optional.of(student1));
+
+        // When
+        ResponseEntity<?> response = studentService.getStudent(1, "\"3\"");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+        assertThat(response.getBody()).isEqualTo(student1);
+    }
+
+    @Test
+    void testGetAllStudent_NotModifiedAfterLoad() {
+        // Given
+        when(studentRepository.findAll()).thenReturn(studentList);
+        String etag = ETags.of(studentList);
+
+        // When
+        ResponseEntity<List<Student>> response = studentService.getAllStudent("W/" + etag); // Weak comparison for GET
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        verify(studentCache, times(1)).setexAll(argThat(values -> etag.equals(ETags.decode(values.get("students:all:etag")))), anyLong());
+    }
+
+    // --- getStudents Tests ---
+    @Test
+    void testGetStudents_MixesCacheHitsAndDatabaseMisses() {
+        // Given
+        Student student3 = new Student(3, "Carol", 70.0f, "ME");
+        when(studentNearCache.get(anyInt())).thenAnswer(invocation -> // In-process hit for 3 only
+                invocation.getArgument(0).equals(3) ? student3 : null);
+        when(studentCache.mget(List.of("students2", "students1", "students99")))
+                .thenReturn(Arrays.asList(encoder.encode(student2), null, null)); // Redis hit for 2 only
+        when(studentRepository.findAllById(List.of(1, 99))).thenReturn(List.of(student1)); // 99 does not exist
+
+        // When
+        ResponseEntity<List<Student>> response = studentService.getStudents(List.of(2, 3, 1, 99));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(student2, student3, student1); // Request order, unknown ids dropped
+        verify(studentCache, times(1)).setexAll(argThat(backfill -> backfill.keySet().equals(Set.of("students1", "students1:etag"))
+                && student1.equals(encoder.decode(backfill.get("students1"), Student.class))), anyLong());
+        verify(cacheMetrics, times(1)).hit("students"); // Redis level only, the near cache has its own meters
+        verify(cacheMetrics, times(2)).miss("students");
     }
 
     // --- updateStudent Tests ---
@@ -266,57 +472,116 @@ class StudentServiceImplTest {
     void testUpdateStudentSuccess() {
         // Given
         Student updatedDetails = new Student(0, "Alice Smith", 92.0f, "CS"); // New details for existing student
-        Student existingStudent = student1; // Simulate fetching from DB
-        Student savedStudent = new Student(1, "Alice Smith", 92.0f, "CS"); // Result after saving
+        Student savedStudent = new Student(1, "Alice Smith", 92.0f, "CS", 1); // Row returned by UPDATE ... RETURNING
 
-        when(studentRepository.getById(1)).thenReturn(existingStudent);
-        when(studentRepository.save(any(Student.class))).thenReturn(savedStudent); // Mock save returns updated student
-        when(jedis.del(eq("students:1"))).thenReturn(1L); // Mock cache invalidation for specific student
-        when(jedis.del(eq("students:all"))).thenReturn(1L); // Mock cache invalidation for all students
-        when(jedis.setex(eq("students:1"), anyInt(), anyString())).thenReturn("OK"); // Mock re-caching
+        when(studentRepository.updateReturning(1, "Alice Smith", 92.0f, "CS")).thenReturn(Optional.of(updated(savedStudent, "EE"))); // Moved from EE
 
         // When
-        ResponseEntity<?> response = studentService.updateStudent(updatedDetails, 1);
+        ResponseEntity<?> response = studentService.updateStudent(updatedDetails, 1, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(savedStudent); // Should return the saved/updated student
-        verify(studentRepository, times(1)).getById(1);
-        verify(studentRepository, times(1)).save(existingStudent); // Verify that the fetched student was updated and saved
-        verify(jedis, times(1)).del("students:1");
-        verify(jedis, times(1)).del("students:all");
-        verify(jedis, times(1)).setex(eq("students:1"), anyInt(), anyString());
+        verify(studentRepository, never()).findById(anyInt()); // Single statement, no read before the write
+        verify(studentRepository, never()).save(any(Student.class));
+        verify(studentCache, times(1)).writeThrough(argThat(entries -> entries.keySet().equals(Set.of("students1", "students1:etag"))), anyLong(), eq("students:all"), eq("students:all:etag"), eq("students:pages"),
+                eq("students:query"), eq("students:branch:CS"), eq("students:branch:EE")); // Both branches are stale
+        verify(studentNearCache, times(1)).put(savedStudent);
+        verify(studentNearCache, times(1)).publishInvalidation(1); // Other nodes drop their copy
+        verify(eventPublisher, times(1)).publishEvent(StudentChangedEvent.updated(new Student(1, "Alice", 90.5f, "EE"), savedStudent));
     }
 
     @Test
     void testUpdateStudentNotFound() {
         // Given
         Student updatedDetails = new Student(0, "NonExistent", 88.0f, "ME");
-        when(studentRepository.getById(99)).thenReturn(null); // Student not found
-        when(jedis.del(eq("students:99"))).thenReturn(0L); // Mock cache invalidation for specific student
-        when(jedis.del(eq("students:all"))).thenReturn(0L); // Mock cache invalidation for all students
+        when(studentRepository.updateReturning(99, "NonExistent", 88.0f, "ME")).thenReturn(Optional.empty()); // Student not found
 
         // When
-        ResponseEntity<?> response = studentService.updateStudent(updatedDetails, 99);
+        ResponseEntity<?> response = studentService.updateStudent(updatedDetails, 99, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(response.getBody()).isNull();
-        verify(studentRepository, times(1)).getById(99);
-        verify(studentRepository, never()).save(any(Student.class)); // Should not save
-        verify(jedis, times(1)).del("students:99");
-        verify(jedis, times(1)).del("students:all");
-        verify(jedis, never()).setex(anyString(), anyInt(), anyString()); // Should not set cache
+        verifyNoInteractions(studentCache, studentNearCache, eventPublisher); // Nothing changed, every listing stays cached
+    }
+
+    @Test
+    void testUpdateStudent_IfMatchCurrentVersion() {
+        // Given
+        Student savedStudent = new Student(1, "Alice Smith", 92.0f, "CS", 4);
+        when(studentRepository.updateIfVersionReturning(1, "Alice Smith", 92.0f, "CS", List.of(3)))
+                .thenReturn(Optional.of(updated(savedStudent, "CS")));
+
+        // When
+        ResponseEntity<?> response = studentService.updateStudent(new Student(0, "Alice Smith", 92.0f, "CS"), 1, "\"3\"");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+        verify(studentRepository, never()).updateReturning(anyInt(), any(), anyFloat(), any());
+    }
+
+    @Test
+    void testUpdateStudent_IfMatchStaleVersion() {
+        // Given
+        when(studentRepository.updateIfVersionReturning(1, "Alice Smith", 92.0f, "CS", List.of(3))).thenReturn(Optional.empty());
+        when(studentRepository.existsById(1)).thenReturn(true); // Someone else updated it first
+
+        // When
+        ResponseEntity<?> response = studentService.updateStudent(new Student(0, "Alice Smith", 92.0f, "CS"), 1, "\"3\", W/\"4\"");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(studentCache, studentNearCache, eventPublisher); // Nothing was written
+    }
+
+    // --- patchStudent Tests ---
+    @Test
+    void testPatchStudentSuccess() {
+        // Given
+        StudentPatch patch = new StudentPatch(null, 95.0f, null); // Only the percentage changes
+        Student patched = new Student(1, "Alice", 95.0f, "CS", 1);
+        when(studentRepository.patchReturning(1, null, 95.0f, null)).thenReturn(Optional.of(updated(patched, "CS")));
+
+        // When
+        ResponseEntity<?> response = studentService.patchStudent(patch, 1);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(patched);
+        verify(studentCache, times(1)).writeThrough(argThat(entries -> entries.keySet().equals(Set.of("students1", "students1:etag"))), anyLong(), eq("students:all"), eq("students:all:etag"), eq("students:pages"),
+                eq("students:query"), eq("students:branch:CS"));
+    }
+
+    @Test
+    void testPatchStudentNotFound() {
+        // Given
+        when(studentRepository.patchReturning(99, null, 95.0f, null)).thenReturn(Optional.empty()); // Student not found
+
+        // When
+        ResponseEntity<?> response = studentService.patchStudent(new StudentPatch(null, 95.0f, null), 99);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        verifyNoInteractions(studentCache, studentNearCache, eventPublisher); // Nothing changed, every listing stays cached
+    }
+
+    @Test
+    void testPatchStudentBadRequest_BlankName() {
+        // When
+        ResponseEntity<?> response = studentService.patchStudent(new StudentPatch(" ", null, null), 1);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(studentRepository, studentCache);
     }
 
     // --- deleteStudent Tests ---
     @Test
     void testDeleteStudentSuccess() {
         // Given
-        when(studentRepository.getById(1)).thenReturn(student1);
-        doNothing().when(studentRepository).deleteById(1); // Mock void method
-        when(jedis.del(eq("students:1"))).thenReturn(1L); // Mock cache invalidation
-        when(jedis.del(eq("students:all"))).thenReturn(1L); // Mock cache invalidation
+        when(studentRepository.deleteReturning(1)).thenReturn(Optional.of(student1));
 
         // When
         ResponseEntity<?> response = studentService.deleteStudent(1);
@@ -324,18 +589,15 @@ class StudentServiceImplTest {
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GONE);
         assertThat(response.getBody()).isEqualTo(student1); // Should return the deleted student
-        verify(studentRepository, times(1)).getById(1);
-        verify(studentRepository, times(1)).deleteById(1);
-        verify(jedis, times(1)).del("students:1");
-        verify(jedis, times(1)).del("students:all");
+        verify(studentRepository, never()).findById(anyInt()); // Single statement, no read before the delete
+        verify(studentCache, times(1)).del("students1", "students1:etag", "students:all", "students:all:etag", "students:pages", "students:query", "students:branch:CS");
+        verify(studentNearCache, times(1)).invalidate(1);
     }
 
     @Test
     void testDeleteStudentNotFound() {
         // Given
-        when(studentRepository.getById(99)).thenReturn(null); // Student not found
-        when(jedis.del(eq("students:99"))).thenReturn(0L); // Mock cache invalidation (no key exists)
-        when(jedis.del(eq("students:all"))).thenReturn(0L); // Mock cache invalidation
+        when(studentRepository.deleteReturning(99)).thenReturn(Optional.empty()); // Student not found
 
         // When
         ResponseEntity<?> response = studentService.deleteStudent(99);
@@ -343,9 +605,54 @@ class StudentServiceImplTest {
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(response.getBody()).isNull();
-        verify(studentRepository, times(1)).getById(99);
-        verify(studentRepository, never()).deleteById(anyInt()); // Should not delete
-        verify(jedis, times(1)).del("students:99");
-        verify(jedis, times(1)).del("students:all"); // Still attempt to invalidate all cache
+        verify(studentCache, times(1)).del("students99", "students99:etag", "students:all", "students:all:etag", "students:pages", "students:query"); // Still attempt to invalidate all cache
+    }
+
+    // --- batch Tests ---
+    @Test
+    void testCreateStudents_ReportsPerItemResults() {
+        // Given
+        Student valid = new Student(0, "Charlie", 75.0f, "ME");
+        Student invalid = new Student(0, " ", 60.0f, "ME");
+        Student saved = new Student(3, "Charlie", 75.0f, "ME");
+        when(studentRepository.saveAll(List.of(valid))).thenReturn(List.of(saved));
+
+        // When
+        ResponseEntity<List<BatchItemResult>> response = studentService.createStudents(Arrays.asList(invalid, valid));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(BatchItemResult::getStatus).containsExactly(400, 201);
+        assertThat(response.getBody().get(1).getStudent()).isEqualTo(saved);
+        verify(studentCache, times(1)).del("students:all", "students:all:etag", "students:pages", "students:query", "students:branch:ME");
+    }
+
+    @Test
+    void testDeleteStudents_InvalidatesAllKeysAtOnce() {
+        // Given
+        when(studentRepository.findAllById(List.of(1, 2, 99))).thenReturn(studentList);
+
+        // When
+        ResponseEntity<List<BatchItemResult>> response = studentService.deleteStudents(List.of(1, 2, 99));
+
+        // Then
+        assertThat(response.getBody()).extracting(BatchItemResult::getStatus).containsExactly(410, 410, 404);
+        verify(studentRepository, times(1)).deleteAllByIdInBatch(anyCollection());
+        verify(studentCache, times(1)).del(any(String[].class));
+        verify(studentNearCache, times(1)).invalidateAll(anyCollection());
+    }
+
+    // Row as returned by the single statement update queries
+    private static UpdatedStudent updated(Student student, String previousBranch) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("rollNo", student.getRollNo());
+        row.put("name", student.getName());
+        row.put("percentage", student.getPercentage());
+        row.put("branch", student.getBranch());
+        row.put("version", student.getVersion());
+        row.put("previousName", "Alice");
+        row.put("previousPercentage", 90.5f);
+        row.put("previousBranch", previousBranch);
+        return new SpelAwareProxyProjectionFactory().createProjection(UpdatedStudent.class, row);
     }
 }
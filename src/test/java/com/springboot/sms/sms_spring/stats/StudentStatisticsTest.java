@@ -0,0 +1,66 @@
+package com.springboot.sms.sms_spring.stats;
+
+import com.springboot.sms.sms_spring.dto.BranchStats;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.event.StudentChangedEvent;
+import com.springboot.sms.sms_spring.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class StudentStatisticsTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @InjectMocks
+    private StudentStatistics studentStatistics;
+
+    @Test
+    void appliesCreatesUpdatesAndDeletesAsDeltas() {
+        Student alice = new Student(1, "Alice", 90.0f, "CS");
+        Student bob = new Student(2, "Bob", 60.0f, "CS");
+        Student carol = new Student(3, "Carol", 75.0f, "EE");
+        studentStatistics.onStudentChanged(StudentChangedEvent.created(alice));
+        studentStatistics.onStudentChanged(StudentChangedEvent.created(bob));
+        studentStatistics.onStudentChanged(StudentChangedEvent.created(carol));
+
+        // Carol moves to CS with a better score, then Alice leaves
+        Student movedCarol = new Student(3, "Carol", 100.0f, "CS");
+        studentStatistics.onStudentChanged(StudentChangedEvent.updated(carol, movedCarol));
+        studentStatistics.onStudentChanged(StudentChangedEvent.deleted(alice));
+
+        BranchStats cs = studentStatistics.get("CS");
+        assertThat(cs.getCount()).isEqualTo(2);
+        assertThat(cs.getMean()).isEqualTo(80.0);
+        assertThat(cs.getMin()).isEqualTo(60.0f);
+        assertThat(cs.getMax()).isEqualTo(100.0f); // Alice's 90 no longer counts
+        assertThat(cs.getHistogram()[6]).isEqualTo(1);
+        assertThat(cs.getHistogram()[9]).isEqualTo(1); // 100 falls into the last bucket
+        assertThat(studentStatistics.get("EE")).isNull(); // Empty branches are not reported
+        assertThat(studentStatistics.getAll()).extracting(BranchStats::getBranch).containsExactly("CS");
+    }
+
+    @Test
+    void percentagesWhoseRowsAreAllGoneAreForgotten() {
+        BranchStatistics statistics = new BranchStatistics();
+        for (int i = 0; i < 1_000; i++) {
+            statistics.add(i / 10.0f, 1);
+            statistics.remove(i / 10.0f);
+        }
+        statistics.remove(42.0f); // A delete that overtook its create
+        statistics.add(42.0f, 1);
+        statistics.add(55.5f, 1);
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(statistics, "values")).containsOnlyKeys(55.5f);
+        assertThat(statistics.snapshot("CS").getMin()).isEqualTo(55.5f);
+    }
+}
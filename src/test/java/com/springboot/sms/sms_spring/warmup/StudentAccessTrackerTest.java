@@ -0,0 +1,60 @@
+package com.springboot.sms.sms_spring.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentAccessTrackerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void hottestIdsComeFirst() {
+        StudentAccessTracker tracker = tracker();
+        read(tracker, 7, 3);
+        read(tracker, 2, 10);
+        read(tracker, 9, 1);
+
+        assertThat(tracker.hottest(2)).containsExactly(2, 7);
+    }
+
+    @Test
+    void countsSurviveARestartAtHalfWeight() {
+        StudentAccessTracker before = tracker();
+        read(before, 1, 20);
+        read(before, 2, 8);
+        read(before, 3, 1); // Rounds up to 1, a single read is still remembered
+        before.save();
+        assertThat(Files.exists(dir.resolve("hot.bin"))).isTrue();
+        assertThat(Files.exists(dir.resolve("hot.bin.part"))).isFalse();
+
+        StudentAccessTracker after = tracker();
+        read(after, 2, 7); // 8 / 2 + 7 = 11 overtakes 20 / 2 = 10
+
+        assertThat(after.hottest(10)).containsExactly(2, 1, 3);
+    }
+
+    @Test
+    void ignoresAForeignFile() throws Exception {
+        Files.writeString(dir.resolve("hot.bin"), "not a snapshot");
+
+        assertThat(tracker().hottest(10)).isEmpty();
+    }
+
+    private StudentAccessTracker tracker() {
+        StudentAccessTracker tracker = new StudentAccessTracker();
+        ReflectionTestUtils.setField(tracker, "file", dir.resolve("hot.bin"));
+        ReflectionTestUtils.invokeMethod(tracker, "init");
+        return tracker;
+    }
+
+    private static void read(StudentAccessTracker tracker, int rollNo, int times) {
+        for (int i = 0; i < times; i++) tracker.record(rollNo);
+    }
+}
@@ -0,0 +1,87 @@
+package com.springboot.sms.sms_spring.warmup;
+
+import com.springboot.sms.sms_spring.cache.BinaryCacheCodec;
+import com.springboot.sms.sms_spring.cache.CacheCodec;
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.cache.StudentNearCache;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentCacheWarmerTest {
+
+    @Mock // Mock the recorded read counts
+    private StudentAccessTracker studentAccessTracker;
+
+    @Mock // Mock the StudentRepository dependency
+    private StudentRepository studentRepository;
+
+    @Mock // Mock the Redis cache dependency
+    private StudentCache studentCache;
+
+    @Mock // Mock the in-process near cache
+    private StudentNearCache studentNearCache;
+
+    @Spy // Real binary codec for cached values
+    private CacheCodec cacheCodec = new BinaryCacheCodec();
+
+    @InjectMocks
+    private StudentCacheWarmer warmer;
+
+    @Test
+    void loadsTheHottestIdsInBatches() {
+        ReflectionTestUtils.setField(warmer, "batchSize", 2);
+        when(studentAccessTracker.hottest(10000)).thenReturn(List.of(5, 3, 8, 1, 4));
+        when(studentRepository.findAllById(anyList())).thenAnswer(inv -> {
+            List<Integer> ids = inv.getArgument(0);
+            // Roll number 4 no longer exists
+            return ids.stream().filter(id -> id != 4).map(id -> new Student(id, "S" + id, id, "CS")).toList();
+        });
+
+        assertThat(warmer.warm()).isEqualTo(4);
+
+        verify(studentRepository).findAllById(List.of(5, 3));
+        verify(studentRepository).findAllById(List.of(8, 1));
+        verify(studentRepository).findAllById(List.of(4));
+        verify(studentCache, times(3)).setexAll(anyMap(), eq(5L));
+        verify(studentCache).setexAll(argThat((Map<String, byte[]> values) -> values.keySet().equals(Set.of("students5", "students5:etag", "students3", "students3:etag"))), eq(5L));
+        verify(studentNearCache, times(4)).put(any(Student.class));
+    }
+
+    @Test
+    void nothingRecordedMeansNothingToDo() {
+        when(studentAccessTracker.hottest(anyInt())).thenReturn(List.of());
+
+        assertThat(warmer.warm()).isZero();
+
+        verifyNoInteractions(studentRepository, studentCache);
+    }
+
+    @Test
+    void databaseFailureDoesNotStopStartup() {
+        when(studentAccessTracker.hottest(anyInt())).thenReturn(IntStream.rangeClosed(1, 3).boxed().toList());
+        when(studentRepository.findAllById(anyList())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(warmer.warm()).isZero();
+    }
+}
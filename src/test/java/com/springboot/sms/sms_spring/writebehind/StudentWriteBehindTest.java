@@ -0,0 +1,168 @@
+package com.springboot.sms.sms_spring.writebehind;
+
+import com.springboot.sms.sms_spring.cache.StudentCache;
+import com.springboot.sms.sms_spring.dto.WriteStatus;
+import com.springboot.sms.sms_spring.entity.Student;
+import com.springboot.sms.sms_spring.repository.StudentCopyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<StudentWriteBehind> started = new ArrayList<>();
+    private long lingerMillis = 2;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (StudentWriteBehind writeBehind : started) writeBehind.stop();
+    }
+
+    @Test
+    void failedCommitIsRetriedAndNotLost() throws Exception {
+        StudentCopyRepository repository = repository();
+        doThrow(new TransactionSystemException("could not commit")).doNothing().when(repository).insert(anyList());
+        StudentWriteBehind writeBehind = start(repository);
+
+        int rollNo = writeBehind.accept(new Student(0, "Alice", 90.0f, "CS")).getRollNo();
+
+        awaitState(writeBehind, rollNo, WriteStatus.State.WRITTEN);
+        verify(repository, atLeast(2)).insert(anyList());
+        awaitEmptyJournal();
+    }
+
+    @Test
+    void rejectedBatchIsNarrowedDownToTheBadStudent() throws Exception {
+        StudentCopyRepository repository = repository();
+        doAnswer(invocation -> {
+            List<Student> students = invocation.getArgument(0);
+            if (students.stream().anyMatch(s -> s.getName().equals("Bad"))) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            return null;
+        }).when(repository).insert(anyList());
+        lingerMillis = 200; // both creates end up in one batch
+        StudentWriteBehind writeBehind = start(repository);
+
+        int good = writeBehind.accept(new Student(0, "Alice", 90.0f, "CS")).getRollNo();
+        int bad = writeBehind.accept(new Student(0, "Bad", 50.0f, "CS")).getRollNo();
+
+        assertThat(awaitState(writeBehind, bad, WriteStatus.State.FAILED).getError()).isEqualTo("rejected");
+        awaitState(writeBehind, good, WriteStatus.State.WRITTEN);
+        awaitEmptyJournal();
+    }
+
+    @Test
+    void batchStillFailingAtStopIsWrittenAfterTheNextStart() throws Exception {
+        StudentCopyRepository down = repository();
+        doThrow(new CannotCreateTransactionException("connection refused")).when(down).insert(anyList());
+        StudentWriteBehind first = start(down);
+        int rollNo = first.accept(new Student(0, "Alice", 90.0f, "CS")).getRollNo();
+        verify(down, timeout(5000)).insert(anyList());
+        started.remove(first);
+        first.stop();
+
+        StudentCopyRepository up = repository();
+        doNothing().when(up).insert(anyList());
+        StudentWriteBehind second = start(up);
+
+        awaitState(second, rollNo, WriteStatus.State.WRITTEN);
+        awaitEmptyJournal();
+    }
+
+    @Test
+    void rollNumbersAreFetchedAheadByTheWriter() throws Exception {
+        StudentCopyRepository repository = mock(StudentCopyRepository.class);
+        AtomicInteger sequence = new AtomicInteger();
+        List<String> fetchedOn = new CopyOnWriteArrayList<>();
+        when(repository.nextIds(anyInt())).thenAnswer(invocation -> {
+            fetchedOn.add(Thread.currentThread().getName());
+            int count = invocation.getArgument(0);
+            int first = sequence.getAndAdd(count) + 1;
+            return IntStream.range(first, first + count).toArray();
+        });
+        StudentWriteBehind writeBehind = start(repository);
+
+        Set<Integer> rollNos = new HashSet<>();
+        for (int block = 1; block <= 3; block++) {
+            verify(repository, timeout(5000).times(block)).nextIds(anyInt()); // The next block is ready before it is needed
+            for (int i = 0; i < 50; i++) {
+                rollNos.add(writeBehind.accept(new Student(0, "Alice", 90.0f, "CS")).getRollNo());
+            }
+        }
+
+        assertThat(rollNos).hasSize(150);
+        assertThat(fetchedOn).containsOnly("student-write-behind"); // Never on the accepting thread
+    }
+
+    private StudentCopyRepository repository() {
+        StudentCopyRepository repository = mock(StudentCopyRepository.class);
+        when(repository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(1, invocation.getArgument(0)).toArray());
+        return repository;
+    }
+
+    private StudentWriteBehind start(StudentCopyRepository repository) throws Exception {
+        StudentWriteBehind writeBehind = new StudentWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "studentCopyRepository", repository);
+        ReflectionTestUtils.setField(writeBehind, "studentCache", mock(StudentCache.class));
+        ReflectionTestUtils.setField(writeBehind, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(writeBehind, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "journalFile", dir.resolve("journal").toString());
+        ReflectionTestUtils.setField(writeBehind, "lingerMillis", lingerMillis);
+        ReflectionTestUtils.setField(writeBehind, "retryMillis", 10L);
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static WriteStatus awaitState(StudentWriteBehind writeBehind, int rollNo, WriteStatus.State state) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        WriteStatus status = writeBehind.status(rollNo);
+        while (status.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = writeBehind.status(rollNo);
+        }
+        assertThat(status.getState()).isEqualTo(state);
+        return status;
+    }
+
+    // the writer truncates the journal on its first idle pass after the last batch
+    private void awaitEmptyJournal() throws Exception {
+        Path journal = dir.resolve("journal");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (Files.size(journal) > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertThat(Files.size(journal)).isZero();
+    }
+}
@@ -0,0 +1,76 @@
+package com.springboot.sms.sms_spring.writebehind;
+
+import com.springboot.sms.sms_spring.entity.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAcceptedCreatesThatWereNotWritten() throws Exception {
+        Path file = dir.resolve("journal");
+        Student alice = new Student(1, "Alice", 90.0f, "CS");
+        Student bob = new Student(2, "Bob", 60.0f, null);
+        Student carol = new Student(3, "Carol", 75.0f, "EE");
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            journal.accepted(alice);
+            journal.accepted(bob);
+            journal.written(List.of(alice));
+            journal.accepted(carol);
+        }
+
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            assertThat(journal.outstanding()).containsExactly(bob, carol); // in the order they were accepted
+        }
+    }
+
+    @Test
+    void studentWithoutANameIsReplayed() throws Exception {
+        Path file = dir.resolve("journal");
+        Student nameless = new Student(1, null, 50.0f, null);
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            journal.accepted(nameless);
+        }
+
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            assertThat(journal.outstanding()).containsExactly(nameless);
+        }
+    }
+
+    @Test
+    void tornLastRecordIsIgnored() throws Exception {
+        Path file = dir.resolve("journal");
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            journal.accepted(new Student(1, "Alice", 90.0f, "CS"));
+        }
+        Files.write(file, new byte[]{'W', 0, 0}, StandardOpenOption.APPEND); // crash in the middle of an append
+
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            assertThat(journal.outstanding()).extracting(Student::getRollNo).containsExactly(1);
+        }
+    }
+
+    @Test
+    void truncatesOnlyWhenIdle() throws Exception {
+        Path file = dir.resolve("journal");
+        try (WriteJournal journal = new WriteJournal(file, false)) {
+            journal.accepted(new Student(1, "Alice", 90.0f, "CS"));
+
+            assertThat(journal.truncateIf(() -> false)).isFalse();
+            assertThat(journal.outstanding()).hasSize(1);
+
+            assertThat(journal.truncateIf(() -> true)).isTrue();
+            assertThat(journal.outstanding()).isEmpty();
+        }
+    }
+}